@@ -0,0 +1,132 @@
+/* ********************************************************************
+    Licensed to Jasig under one or more contributor license
+    agreements. See the NOTICE file distributed with this work
+    for additional information regarding copyright ownership.
+    Jasig licenses this file to you under the Apache License,
+    Version 2.0 (the "License"); you may not use this file
+    except in compliance with the License. You may obtain a
+    copy of the License at:
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on
+    an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied. See the License for the
+    specific language governing permissions and limitations
+    under the License.
+*/
+package org.bedework.synch;
+
+import org.bedework.synch.Synchling.SynchInfo;
+import org.bedework.synch.bench.FeedGenerator;
+import org.bedework.synch.shared.cnctrs.ConnectorInstance.ItemInfo;
+import org.bedework.synch.wsmessages.SynchEndType;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** The comparison step of a resynch: build the item tables for each
+ * end then find the adds, updates and deletes.
+ *
+ * <p>In this package as the item table and the Synchling comparison
+ * methods are package private. The compare runs Synchling.getResynchs
+ * and checkDeletes for a one way synch with trusted lastmods.
+ *
+ * @author Mike Douglass
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemTableBench {
+  @Param({"100", "1000", "10000", "100000"})
+  public int size;
+
+  private List<ItemInfo> fromItems;
+
+  private List<ItemInfo> toItems;
+
+  /* The comparison doesn't use the engine */
+  private Synchling synchling;
+
+  /** 1 in 10 changed at the from end, 1 in 50 missing at the to end
+   * and 1 in 100 only at the to end.
+   */
+  @Setup
+  public void setup() {
+    synchling = new Synchling(null);
+
+    final FeedGenerator gen = new FeedGenerator(10);
+
+    fromItems = gen.items(size, 1);
+
+    toItems = new ArrayList<>(size);
+    int i = 0;
+    for (final ItemInfo ii: gen.items(size, 0)) {
+      if ((i % 50) != 0) {
+        toItems.add(ii);
+      }
+      i++;
+    }
+
+    for (i = 0; i < size / 100; i++) {
+      toItems.add(new ItemInfo(FeedGenerator.uid(size + i),
+                               ItemInfo.noLastmod, null));
+    }
+  }
+
+  /**
+   * @return table
+   */
+  @Benchmark
+  public ItemTable build() {
+    return table(fromItems);
+  }
+
+  /**
+   * @param bh consumes the tables and changes
+   */
+  @Benchmark
+  public void compare(final Blackhole bh) {
+    final ItemTable from = table(fromItems);
+    final ItemTable to = table(toItems);
+    final List<SynchInfo> updateInfo = new ArrayList<>();
+
+    synchling.getResynchs(updateInfo, from, to, SynchEndType.B, true);
+    synchling.checkDeletes(updateInfo, to, SynchEndType.B);
+
+    bh.consume(from);
+    bh.consume(to);
+
+    for (final SynchInfo si: updateInfo) {
+      bh.consume(si);
+    }
+  }
+
+  private static ItemTable table(final List<ItemInfo> items) {
+    final ItemTable table = new ItemTable(items.size());
+
+    for (final ItemInfo ii: items) {
+      table.add(ii);
+    }
+
+    return table;
+  }
+}
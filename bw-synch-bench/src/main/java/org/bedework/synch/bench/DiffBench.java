@@ -0,0 +1,88 @@
+/* ********************************************************************
+    Licensed to Jasig under one or more contributor license
+    agreements. See the NOTICE file distributed with this work
+    for additional information regarding copyright ownership.
+    Jasig licenses this file to you under the Apache License,
+    Version 2.0 (the "License"); you may not use this file
+    except in compliance with the License. You may obtain a
+    copy of the License at:
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on
+    an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied. See the License for the
+    specific language governing permissions and limitations
+    under the License.
+*/
+package org.bedework.synch.bench;
+
+import org.bedework.util.calendar.diff.XmlIcalCompare;
+
+import ietf.params.xml.ns.icalendar_2.IcalendarType;
+import org.oasis_open.docs.ws_calendar.ns.soap.ComponentSelectionType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/** XmlIcalCompare.diff on single event calendars as the resynch calls
+ * it - half the pairs differ in the summary and lastmod.
+ *
+ * @author Mike Douglass
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DiffBench {
+  private static final int pairs = 100;
+
+  private final IcalendarType[] from = new IcalendarType[pairs];
+
+  private final IcalendarType[] to = new IcalendarType[pairs];
+
+  private XmlIcalCompare differ;
+
+  /**
+   */
+  @Setup
+  public void setup() {
+    final FeedGenerator gen = new FeedGenerator(2);
+
+    for (int i = 0; i < pairs; i++) {
+      from[i] = gen.xcalEvent(i, 1);
+      to[i] = gen.xcalEvent(i, 0);
+    }
+
+    differ = new XmlIcalCompare(
+            new ArrayList<>(XmlIcalCompare.defaultSkipList),
+            id -> null);
+  }
+
+  /**
+   * @param bh sink
+   */
+  @Benchmark
+  @OperationsPerInvocation(pairs)
+  public void diff(final Blackhole bh) {
+    for (int i = 0; i < pairs; i++) {
+      final ComponentSelectionType cst = differ.diff(from[i], to[i]);
+      bh.consume(cst);
+    }
+  }
+}
@@ -0,0 +1,348 @@
+/* ********************************************************************
+    Licensed to Jasig under one or more contributor license
+    agreements. See the NOTICE file distributed with this work
+    for additional information regarding copyright ownership.
+    Jasig licenses this file to you under the Apache License,
+    Version 2.0 (the "License"); you may not use this file
+    except in compliance with the License. You may obtain a
+    copy of the License at:
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on
+    an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied. See the License for the
+    specific language governing permissions and limitations
+    under the License.
+*/
+package org.bedework.synch.bench;
+
+import org.bedework.synch.shared.cnctrs.ConnectorInstance.ItemInfo;
+import org.bedework.util.calendar.IcalToXcal;
+
+import ietf.params.xml.ns.icalendar_2.IcalendarType;
+import net.fortuna.ical4j.data.CalendarBuilder;
+import net.fortuna.ical4j.data.UnfoldingReader;
+import net.fortuna.ical4j.model.Calendar;
+import net.fortuna.ical4j.util.CompatibilityHints;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Generates feeds of events for the benchmarks. Output depends only
+ * on the arguments so runs can be compared.
+ *
+ * <p>Each event has the properties a typical feed carries. Every 5th
+ * has an alarm and every 10th recurs. A version number changes the
+ * summary and lastmod of a fraction of the events so that two versions
+ * of a feed look like one end of a synch before and after changes.
+ * The same events can be had as an OrgSync V2 JSON feed.
+ *
+ * @author Mike Douglass
+ */
+public class FeedGenerator {
+  private static final DateTimeFormatter utc =
+          DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'")
+                           .withZone(ZoneOffset.UTC);
+
+  private static final Instant base =
+          Instant.parse("2026-01-05T09:00:00Z");
+
+  private static final long hour = 60 * 60;
+
+  private static final long day = 24 * hour;
+
+  /* 1 in this many events changes from one version to the next */
+  private final int changeEvery;
+
+  /**
+   * @param changeEvery 1 in this many events changes between versions
+   */
+  public FeedGenerator(final int changeEvery) {
+    this.changeEvery = Math.max(changeEvery, 1);
+  }
+
+  /**
+   * @param i index of event
+   * @return uid for the event
+   */
+  public static String uid(final int i) {
+    return "bench-" + i + "@example.org";
+  }
+
+  /**
+   * @param uid as generated by uid(int)
+   * @return index of the event or -1 if not one of ours
+   */
+  public static int index(final String uid) {
+    if ((uid == null) || !uid.startsWith("bench-") ||
+            !uid.endsWith("@example.org")) {
+      return -1;
+    }
+
+    try {
+      return Integer.parseInt(uid.substring(6, uid.indexOf('@')));
+    } catch (final NumberFormatException nfe) {
+      return -1;
+    }
+  }
+
+  /**
+   * @param n number of events
+   * @param version of the feed
+   * @return the feed as iCalendar text
+   */
+  public String ics(final int n,
+                    final int version) {
+    final StringBuilder sb = new StringBuilder(n * 600);
+
+    calStart(sb);
+
+    for (int i = 0; i < n; i++) {
+      event(sb, i, version);
+    }
+
+    line(sb, "END:VCALENDAR");
+
+    return sb.toString();
+  }
+
+  /**
+   * @param n number of events
+   * @param version of the feed
+   * @return the feed as iCalendar bytes
+   */
+  public byte[] icsBytes(final int n,
+                         final int version) {
+    return ics(n, version).getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * @param i index of event
+   * @param version of the feed
+   * @return a calendar holding just that event as iCalendar text
+   */
+  public String icsEvent(final int i,
+                         final int version) {
+    final StringBuilder sb = new StringBuilder(800);
+
+    calStart(sb);
+    event(sb, i, version);
+    line(sb, "END:VCALENDAR");
+
+    return sb.toString();
+  }
+
+  /**
+   * @param n number of events
+   * @param version of the feed
+   * @return the feed as OrgSync V2 JSON
+   */
+  public String orgSync(final int n,
+                        final int version) {
+    final StringBuilder sb = new StringBuilder(n * 500);
+
+    sb.append('[');
+
+    for (int i = 0; i < n; i++) {
+      if (i > 0) {
+        sb.append(',');
+      }
+
+      orgSyncEvent(sb, i, version);
+    }
+
+    sb.append(']');
+
+    return sb.toString();
+  }
+
+  /**
+   * @param n number of events
+   * @param version of the feed
+   * @return the feed as OrgSync V2 JSON bytes
+   */
+  public byte[] orgSyncBytes(final int n,
+                             final int version) {
+    return orgSync(n, version).getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * @param n number of events
+   * @param version of the feed
+   * @return the feed as xCal
+   */
+  public IcalendarType xcal(final int n,
+                            final int version) {
+    return toXcal(ics(n, version));
+  }
+
+  /**
+   * @param i index of event
+   * @param version of the feed
+   * @return a calendar holding just that event as xCal
+   */
+  public IcalendarType xcalEvent(final int i,
+                                 final int version) {
+    return toXcal(icsEvent(i, version));
+  }
+
+  /**
+   * @param n number of events
+   * @param version of the feed
+   * @return item info as a connector would report it
+   */
+  public List<ItemInfo> items(final int n,
+                              final int version) {
+    final List<ItemInfo> items = new ArrayList<>(n);
+
+    for (int i = 0; i < n; i++) {
+      items.add(new ItemInfo(uid(i),
+                             lastMod(i, version).toEpochMilli(),
+                             null));
+    }
+
+    return items;
+  }
+
+  /**
+   * @param ics iCalendar text
+   * @return xCal
+   */
+  public static IcalendarType toXcal(final String ics) {
+    try {
+      CompatibilityHints.setHintEnabled(
+              CompatibilityHints.KEY_RELAXED_UNFOLDING, true);
+      CompatibilityHints.setHintEnabled(
+              CompatibilityHints.KEY_RELAXED_PARSING, true);
+
+      final Calendar ical = new CalendarBuilder().build(
+              new UnfoldingReader(new StringReader(ics), true));
+
+      return IcalToXcal.fromIcal(ical, null, true);
+    } catch (final Throwable t) {
+      throw new RuntimeException(t);
+    }
+  }
+
+  /* ==============================================================
+   *                   Private methods
+   * ============================================================== */
+
+  private void calStart(final StringBuilder sb) {
+    line(sb, "BEGIN:VCALENDAR");
+    line(sb, "VERSION:2.0");
+    line(sb, "PRODID:-//Bedework//bw-synch benchmarks//EN");
+  }
+
+  private void event(final StringBuilder sb,
+                     final int i,
+                     final int version) {
+    final Instant start = base.plusSeconds((i % 365) * day +
+                                                   (i % 8) * hour);
+
+    line(sb, "BEGIN:VEVENT");
+    line(sb, "UID:" + uid(i));
+    line(sb, "DTSTAMP:" + utc.format(base));
+    line(sb, "LAST-MODIFIED:" + utc.format(lastMod(i, version)));
+    line(sb, "DTSTART:" + utc.format(start));
+    line(sb, "DTEND:" + utc.format(start.plusSeconds(hour)));
+    line(sb, "SUMMARY:Event " + i + " version " + changed(i, version));
+    line(sb, "DESCRIPTION:Generated event " + i +
+            " with a description long enough to be typical of a feed.");
+    line(sb, "LOCATION:Room " + (i % 50));
+    line(sb, "CATEGORIES:Category " + (i % 7));
+    line(sb, "CONTACT:Contact " + (i % 20));
+    line(sb, "ORGANIZER;CN=Organizer " + (i % 10) +
+            ":mailto:organizer" + (i % 10) + "@example.org");
+    line(sb, "ATTENDEE;PARTSTAT=ACCEPTED:mailto:attendee" +
+            (i % 100) + "@example.org");
+
+    if ((i % 10) == 0) {
+      line(sb, "RRULE:FREQ=WEEKLY;COUNT=10");
+    }
+
+    if ((i % 5) == 0) {
+      line(sb, "BEGIN:VALARM");
+      line(sb, "ACTION:DISPLAY");
+      line(sb, "DESCRIPTION:Reminder");
+      line(sb, "TRIGGER:-PT15M");
+      line(sb, "END:VALARM");
+    }
+
+    line(sb, "END:VEVENT");
+  }
+
+  /* Same timing as the iCalendar events. OrgSync has no lastmod - the
+   * name changes with the version. Every 10th has extra occurrences.
+   */
+  private void orgSyncEvent(final StringBuilder sb,
+                            final int i,
+                            final int version) {
+    final Instant start = base.plusSeconds((i % 365) * day +
+                                                   (i % 8) * hour);
+
+    sb.append("{\"id\":").append(i)
+      .append(",\"is_public\":").append((i % 4) != 0)
+      .append(",\"name\":\"Event ").append(i)
+      .append(" version ").append(changed(i, version))
+      .append("\",\"location\":\"Room ").append(i % 50)
+      .append("\",\"is_approved\":true")
+      .append(",\"category\":{\"id\":").append(i % 7)
+      .append(",\"name\":\"Category ").append(i % 7)
+      .append("\"},\"umbrella_category\":null")
+      .append(",\"description\":\"Generated event ").append(i)
+      .append(" with a description long enough to be typical of a feed.\"")
+      .append(",\"html_description\":\"<p>Generated event ").append(i)
+      .append("</p>\",\"rsvps\":").append(i % 30)
+      .append(",\"org_id\":").append(1000 + (i % 40))
+      .append(",\"occurrences\":[");
+
+    final int occs;
+    if ((i % 10) == 0) {
+      occs = 3;
+    } else {
+      occs = 1;
+    }
+
+    for (int o = 0; o < occs; o++) {
+      final Instant occStart = start.plusSeconds(o * 7 * day);
+
+      if (o > 0) {
+        sb.append(',');
+      }
+
+      sb.append("{\"starts_at\":\"").append(occStart)
+        .append("\",\"ends_at\":\"").append(occStart.plusSeconds(hour))
+        .append("\",\"is_all_day\":false}");
+    }
+
+    sb.append("]}");
+  }
+
+  /* The version at which the event last changed */
+  private int changed(final int i,
+                      final int version) {
+    if ((i % changeEvery) == 0) {
+      return version;
+    }
+
+    return 0;
+  }
+
+  private Instant lastMod(final int i,
+                          final int version) {
+    return base.plusSeconds(changed(i, version) * day);
+  }
+
+  private static void line(final StringBuilder sb,
+                           final String val) {
+    sb.append(val).append("\r\n");
+  }
+}
@@ -0,0 +1,117 @@
+/* ********************************************************************
+    Licensed to Jasig under one or more contributor license
+    agreements. See the NOTICE file distributed with this work
+    for additional information regarding copyright ownership.
+    Jasig licenses this file to you under the Apache License,
+    Version 2.0 (the "License"); you may not use this file
+    except in compliance with the License. You may obtain a
+    copy of the License at:
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on
+    an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied. See the License for the
+    specific language governing permissions and limitations
+    under the License.
+*/
+package org.bedework.synch.bench;
+
+import org.bedework.synch.db.SubscriptionImpl;
+import org.bedework.synch.filters.DefaultFilter;
+import org.bedework.synch.filters.XCategoryFilter;
+import org.bedework.synch.filters.XlocXContactFilter;
+import org.bedework.synch.shared.filters.Filter;
+
+import ietf.params.xml.ns.icalendar_2.IcalendarType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/** The input filters run on every fetched item. The default filter
+ * strips properties into a copy, the rename filters change the
+ * calendar in place so each call gets a fresh one.
+ *
+ * @author Mike Douglass
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilterBench {
+  @Param({"100", "1000", "10000"})
+  public int size;
+
+  private String ics;
+
+  private IcalendarType xcal;
+
+  private Filter defaultFilter;
+
+  private Filter categoryFilter;
+
+  private Filter locContactFilter;
+
+  /**
+   */
+  @Setup(Level.Trial)
+  public void setup() {
+    ics = new FeedGenerator(10).ics(size, 0);
+
+    final SubscriptionImpl sub = new SubscriptionImpl(null);
+
+    defaultFilter = new DefaultFilter();
+    defaultFilter.init(sub);
+
+    categoryFilter = new XCategoryFilter();
+    categoryFilter.init(sub);
+
+    locContactFilter = new XlocXContactFilter();
+    locContactFilter.init(sub);
+  }
+
+  /** Untimed - the rename filters change it
+   */
+  @Setup(Level.Invocation)
+  public void freshCalendar() {
+    xcal = FeedGenerator.toXcal(ics);
+  }
+
+  /**
+   * @return stripped calendar
+   */
+  @Benchmark
+  public IcalendarType strip() {
+    return defaultFilter.doFilter(xcal);
+  }
+
+  /**
+   * @return renamed calendar
+   */
+  @Benchmark
+  public IcalendarType renameCategories() {
+    return categoryFilter.doFilter(xcal);
+  }
+
+  /**
+   * @return renamed calendar
+   */
+  @Benchmark
+  public IcalendarType renameLocationContact() {
+    return locContactFilter.doFilter(xcal);
+  }
+}
@@ -0,0 +1,75 @@
+/* ********************************************************************
+    Licensed to Jasig under one or more contributor license
+    agreements. See the NOTICE file distributed with this work
+    for additional information regarding copyright ownership.
+    Jasig licenses this file to you under the Apache License,
+    Version 2.0 (the "License"); you may not use this file
+    except in compliance with the License. You may obtain a
+    copy of the License at:
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on
+    an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied. See the License for the
+    specific language governing permissions and limitations
+    under the License.
+*/
+package org.bedework.synch.bench;
+
+import org.bedework.synch.cnctrs.file.FileConnectorInstance;
+
+import ietf.params.xml.ns.icalendar_2.IcalendarType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+/** Parsing a feed and converting it to xCal as the file connector
+ * does on every changed fetch.
+ *
+ * @author Mike Douglass
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class MakeXcalBench {
+  @Param({"100", "1000", "10000", "100000"})
+  public int size;
+
+  private byte[] feed;
+
+  private FileConnectorInstance inst;
+
+  /**
+   */
+  @Setup
+  public void setup() {
+    feed = new FeedGenerator(10).icsBytes(size, 0);
+
+    /* makeXcal uses none of the instance state */
+    inst = new FileConnectorInstance(null, null, null, null, null);
+  }
+
+  /**
+   * @return converted feed
+   */
+  @Benchmark
+  public IcalendarType makeXcal() {
+    return inst.makeXcal(new ByteArrayInputStream(feed));
+  }
+}
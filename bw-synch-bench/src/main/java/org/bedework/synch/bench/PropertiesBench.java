@@ -0,0 +1,97 @@
+/* ********************************************************************
+    Licensed to Jasig under one or more contributor license
+    agreements. See the NOTICE file distributed with this work
+    for additional information regarding copyright ownership.
+    Jasig licenses this file to you under the Apache License,
+    Version 2.0 (the "License"); you may not use this file
+    except in compliance with the License. You may obtain a
+    copy of the License at:
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on
+    an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied. See the License for the
+    specific language governing permissions and limitations
+    under the License.
+*/
+package org.bedework.synch.bench;
+
+import org.bedework.synch.SubscriptionConnectorInfoImpl;
+import org.bedework.synch.shared.BaseSubscriptionInfo;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/** Loading and storing the serialized connector properties, as done
+ * for every subscription read or updated.
+ *
+ * @author Mike Douglass
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PropertiesBench {
+  private String serialized;
+
+  /**
+   */
+  @Setup
+  public void setup() {
+    serialized = store();
+  }
+
+  /**
+   * @return a property value
+   */
+  @Benchmark
+  public String load() {
+    final SubscriptionConnectorInfoImpl info =
+            new SubscriptionConnectorInfoImpl();
+
+    info.setSynchProperties(serialized);
+    info.loadProperties();
+
+    return info.getProperty(BaseSubscriptionInfo.propnameUri);
+  }
+
+  /**
+   * @return serialized form
+   */
+  @Benchmark
+  public String store() {
+    final SubscriptionConnectorInfoImpl info =
+            new SubscriptionConnectorInfoImpl();
+
+    info.setProperty(BaseSubscriptionInfo.propnameUri,
+                     "https://feeds.example.org/calendar/events.ics");
+    info.setProperty(BaseSubscriptionInfo.propnamePrincipal,
+                     "/principals/users/someone");
+    info.setProperty(BaseSubscriptionInfo.propnamePassword,
+                     "bm90IGEgcmVhbCBwYXNzd29yZCBidXQgbG9uZyBlbm91Z2g=");
+    info.setProperty(BaseSubscriptionInfo.propnameChangeToken,
+                     "\"etag-0123456789abcdef\"");
+    info.setProperty(BaseSubscriptionInfo.propnameRefreshDelay,
+                     "900000");
+    info.setProperty(BaseSubscriptionInfo.propnameLastRefreshStatus,
+                     "200");
+    info.setProperty(BaseSubscriptionInfo.propnameLastCrudCts,
+                     "1,2,3,4,5");
+
+    return info.getSynchProperties();
+  }
+}
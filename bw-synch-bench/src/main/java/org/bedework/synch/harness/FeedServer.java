@@ -0,0 +1,349 @@
+/* ********************************************************************
+    Licensed to Jasig under one or more contributor license
+    agreements. See the NOTICE file distributed with this work
+    for additional information regarding copyright ownership.
+    Jasig licenses this file to you under the Apache License,
+    Version 2.0 (the "License"); you may not use this file
+    except in compliance with the License. You may obtain a
+    copy of the License at:
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on
+    an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied. See the License for the
+    specific language governing permissions and limitations
+    under the License.
+*/
+package org.bedework.synch.harness;
+
+import org.bedework.synch.bench.FeedGenerator;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/** Local HTTP server standing in for the subscribed feeds. Feed i is
+ * served as iCalendar at /ics/i and as OrgSync V2 JSON at /orgsync/i.
+ * Every feed has the same events - only the version differs.
+ *
+ * <p>Response latency, the fraction of requests that fail with a 500
+ * and the change token sent can be set while running.
+ *
+ * @author Mike Douglass
+ */
+public class FeedServer {
+  /** What we send for the connector to detect changes
+   */
+  public enum ChangeTokens {
+    /** A strong etag and 304 for a matching If-None-Match */
+    etag,
+
+    /** Last-Modified only */
+    lastModified,
+
+    /** Nothing - every poll refetches */
+    none
+  }
+
+  private static final DateTimeFormatter httpDate =
+          DateTimeFormatter.RFC_1123_DATE_TIME.withZone(ZoneOffset.UTC);
+
+  private static final Instant base =
+          Instant.parse("2026-01-05T09:00:00Z");
+
+  private static final int cachedBodies = 8;
+
+  private final HttpServer server;
+
+  private final ExecutorService executor;
+
+  private final FeedGenerator gen;
+
+  private final int events;
+
+  private volatile int latencyMillis;
+
+  private volatile double errorRate;
+
+  private volatile ChangeTokens changeTokens = ChangeTokens.etag;
+
+  private final Map<Integer, AtomicInteger> versions =
+          new ConcurrentHashMap<>();
+
+  /* Generated bodies keyed on kind and version - all feeds share them */
+  private final Map<String, byte[]> bodies =
+          new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(
+                    final Map.Entry<String, byte[]> eldest) {
+              return size() > cachedBodies;
+            }
+          };
+
+  private final LongAdder requests = new LongAdder();
+
+  private final LongAdder notModified = new LongAdder();
+
+  private final LongAdder errors = new LongAdder();
+
+  private final LongAdder bytesSent = new LongAdder();
+
+  /**
+   * @param events number of events in each feed
+   * @param changeEvery 1 in this many events changes between versions
+   * @throws IOException if the server can't be created
+   */
+  public FeedServer(final int events,
+                    final int changeEvery) throws IOException {
+    this.events = events;
+    gen = new FeedGenerator(changeEvery);
+
+    server = HttpServer.create(
+            new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+            0);
+    server.createContext("/ics/", ex -> handle(ex, false));
+    server.createContext("/orgsync/", ex -> handle(ex, true));
+
+    executor = Executors.newCachedThreadPool(r -> {
+      final Thread t = new Thread(r, "FeedServer");
+      t.setDaemon(true);
+      return t;
+    });
+    server.setExecutor(executor);
+  }
+
+  /**
+   */
+  public void start() {
+    server.start();
+  }
+
+  /**
+   */
+  public void stop() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+
+  /**
+   * @return base uri ending in "/"
+   */
+  public String getBaseUri() {
+    return "http://localhost:" + server.getAddress().getPort() + "/";
+  }
+
+  /**
+   * @param feed index
+   * @return uri of the iCalendar feed
+   */
+  public String getIcsUri(final int feed) {
+    return getBaseUri() + "ics/" + feed;
+  }
+
+  /**
+   * @param feed index
+   * @return uri of the OrgSync feed
+   */
+  public String getOrgSyncUri(final int feed) {
+    return getBaseUri() + "orgsync/" + feed;
+  }
+
+  /**
+   * @param val millisecs added to each response
+   */
+  public void setLatencyMillis(final int val) {
+    latencyMillis = val;
+  }
+
+  /**
+   * @param val fraction of requests failed with a 500
+   */
+  public void setErrorRate(final double val) {
+    errorRate = val;
+  }
+
+  /**
+   * @param val what we send to signal changes
+   */
+  public void setChangeTokens(final ChangeTokens val) {
+    changeTokens = val;
+  }
+
+  /**
+   * @param feed index
+   * @return current version of the feed
+   */
+  public int getVersion(final int feed) {
+    return versionOf(feed).get();
+  }
+
+  /** Change the feed
+   *
+   * @param feed index
+   */
+  public void advance(final int feed) {
+    versionOf(feed).incrementAndGet();
+  }
+
+  /** Change every feed served so far
+   */
+  public void advanceAll() {
+    for (final AtomicInteger v: versions.values()) {
+      v.incrementAndGet();
+    }
+  }
+
+  /**
+   * @return requests received
+   */
+  public long getRequests() {
+    return requests.sum();
+  }
+
+  /**
+   * @return requests answered with a 304
+   */
+  public long getNotModified() {
+    return notModified.sum();
+  }
+
+  /**
+   * @return requests failed on purpose
+   */
+  public long getErrors() {
+    return errors.sum();
+  }
+
+  /**
+   * @return body bytes sent
+   */
+  public long getBytesSent() {
+    return bytesSent.sum();
+  }
+
+  /* ==============================================================
+   *                   Private methods
+   * ============================================================== */
+
+  private void handle(final HttpExchange ex,
+                      final boolean orgSync) throws IOException {
+    try {
+      requests.increment();
+
+      final int feed = feedIndex(ex.getRequestURI().getPath());
+      if (feed < 0) {
+        ex.sendResponseHeaders(404, -1);
+        return;
+      }
+
+      pause();
+
+      final double rate = errorRate;
+      if ((rate > 0) && (ThreadLocalRandom.current().nextDouble() < rate)) {
+        errors.increment();
+        ex.sendResponseHeaders(500, -1);
+        return;
+      }
+
+      final int version = getVersion(feed);
+
+      switch (changeTokens) {
+        case etag -> {
+          final String etag = "\"" + feed + "-" + version + "\"";
+          ex.getResponseHeaders().set("ETag", etag);
+
+          if (etag.equals(ex.getRequestHeaders()
+                            .getFirst("If-None-Match"))) {
+            notModified.increment();
+            ex.sendResponseHeaders(304, -1);
+            return;
+          }
+        }
+        case lastModified ->
+          ex.getResponseHeaders().set(
+                  "Last-Modified",
+                  httpDate.format(base.plusSeconds(version * 60L)));
+        case none -> {}
+      }
+
+      final String contentType;
+      if (orgSync) {
+        contentType = "application/json";
+      } else {
+        contentType = "text/calendar";
+      }
+      ex.getResponseHeaders().set("Content-Type", contentType);
+
+      if ("HEAD".equals(ex.getRequestMethod())) {
+        ex.sendResponseHeaders(200, -1);
+        return;
+      }
+
+      final byte[] body = body(orgSync, version);
+
+      ex.sendResponseHeaders(200, body.length);
+      ex.getResponseBody().write(body);
+      bytesSent.add(body.length);
+    } finally {
+      ex.close();
+    }
+  }
+
+  private byte[] body(final boolean orgSync,
+                      final int version) {
+    final String key = orgSync + "-" + version;
+
+    synchronized (bodies) {
+      return bodies.computeIfAbsent(key, k -> {
+        if (orgSync) {
+          return gen.orgSyncBytes(events, version);
+        }
+
+        return gen.icsBytes(events, version);
+      });
+    }
+  }
+
+  private AtomicInteger versionOf(final int feed) {
+    return versions.computeIfAbsent(feed, f -> new AtomicInteger());
+  }
+
+  private void pause() {
+    final int latency = latencyMillis;
+
+    if (latency <= 0) {
+      return;
+    }
+
+    try {
+      Thread.sleep(latency);
+    } catch (final InterruptedException ie) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /* Last path element is the feed index */
+  private static int feedIndex(final String path) {
+    try {
+      return Integer.parseInt(path.substring(path.lastIndexOf('/') + 1));
+    } catch (final NumberFormatException nfe) {
+      return -1;
+    }
+  }
+}
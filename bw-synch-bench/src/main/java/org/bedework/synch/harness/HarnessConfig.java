@@ -0,0 +1,131 @@
+/* ********************************************************************
+    Licensed to Jasig under one or more contributor license
+    agreements. See the NOTICE file distributed with this work
+    for additional information regarding copyright ownership.
+    Jasig licenses this file to you under the Apache License,
+    Version 2.0 (the "License"); you may not use this file
+    except in compliance with the License. You may obtain a
+    copy of the License at:
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on
+    an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied. See the License for the
+    specific language governing permissions and limitations
+    under the License.
+*/
+package org.bedework.synch.harness;
+
+import org.bedework.synch.cnctrs.bedework.BedeworkConnector;
+import org.bedework.synch.cnctrs.bedework.BedeworkConnectorConfig;
+import org.bedework.synch.cnctrs.file.FileConnector;
+import org.bedework.synch.cnctrs.file.FileConnectorConfig;
+import org.bedework.synch.cnctrs.orgSyncV2.OrgSyncV2Connector;
+import org.bedework.synch.cnctrs.orgSyncV2.OrgSyncV2ConnectorConfig;
+import org.bedework.synch.conf.SynchConfig;
+import org.bedework.synch.shared.conf.ConnectorConfig;
+import org.bedework.synch.shared.service.SynchConnConf;
+import org.bedework.util.jmx.ConfigHolder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** In-memory engine configuration for the load harness. Nothing is
+ * read from or saved to the configuration directory.
+ *
+ * <p>The database is an embedded H2 database with the schema created
+ * at startup. There are three connectors: file and OrgSync connectors
+ * for the feed server and a Bedework connector for the stub service.
+ *
+ * @author Mike Douglass
+ */
+class HarnessConfig implements ConfigHolder<SynchConfig> {
+  static final String fileConnector = "harnessFile";
+
+  static final String orgSyncConnector = "harnessOrgSync";
+
+  static final String bedeworkConnector = "harnessBedework";
+
+  static final String orgSyncUidPrefix = "harness";
+
+  private final SynchConfig cfg = new SynchConfig();
+
+  /**
+   * @param dbUrl jdbc url for the embedded database
+   * @param feeds the feed server
+   * @param bwWsdlUri wsdl of the stub Bedework service
+   * @param poolSize synchling pool size
+   */
+  HarnessConfig(final String dbUrl,
+                final FeedServer feeds,
+                final String bwWsdlUri,
+                final int poolSize) {
+    cfg.setSynchlingPoolSize(poolSize);
+    cfg.setSynchlingPoolTimeout(60 * 1000);
+    cfg.setMissingTargetRetries(3);
+    cfg.setCallbackURI("http://localhost/synchcb/");
+
+    /* Feeds are all UTC so the timezone server is never called */
+    cfg.setTimezonesURI(feeds.getBaseUri() + "tz/");
+
+    cfg.setOrmProperty("hibernate.connection.driver_class",
+                       "org.h2.Driver");
+    cfg.setOrmProperty("hibernate.connection.url", dbUrl);
+    cfg.setOrmProperty("hibernate.connection.username", "sa");
+    cfg.setOrmProperty("hibernate.connection.password", "");
+    cfg.setOrmProperty("hibernate.dialect",
+                       "org.hibernate.dialect.H2Dialect");
+    cfg.setOrmProperty("hibernate.hbm2ddl.auto", "create");
+
+    final List<SynchConnConf<?>> sccs = new ArrayList<>();
+
+    final FileConnectorConfig fcc = new FileConnectorConfig();
+    fcc.setMinPoll(1);
+    sccs.add(connConf(fileConnector,
+                      FileConnector.class, fcc));
+
+    final OrgSyncV2ConnectorConfig occ = new OrgSyncV2ConnectorConfig();
+    occ.setMinPoll(1);
+    occ.setUidPrefix(orgSyncUidPrefix);
+    sccs.add(connConf(orgSyncConnector,
+                      OrgSyncV2Connector.class, occ));
+
+    final BedeworkConnectorConfig bcc = new BedeworkConnectorConfig();
+    bcc.setBwWSDLURI(bwWsdlUri);
+    bcc.setRetryInterval(1);
+    bcc.setKeepAliveInterval(60);
+    sccs.add(connConf(bedeworkConnector,
+                      BedeworkConnector.class, bcc));
+
+    cfg.setConnectorConfs(sccs);
+  }
+
+  @Override
+  public SynchConfig getConfig() {
+    return cfg;
+  }
+
+  @Override
+  public void putConfig() {
+    // Nothing to save
+  }
+
+  private static SynchConnConf<ConnectorConfig> connConf(
+          final String name,
+          final Class<?> connectorClass,
+          final ConnectorConfig conf) {
+    conf.setName(name);
+    conf.setConnectorClassName(connectorClass.getName());
+
+    final SynchConnConf<ConnectorConfig> scc =
+            new SynchConnConf<>("org.bedework.synch:service=harness," +
+                                        "connector=" + name,
+                                null,
+                                name);
+    scc.setConfig(conf);
+
+    return scc;
+  }
+}
@@ -0,0 +1,374 @@
+/* ********************************************************************
+    Licensed to Jasig under one or more contributor license
+    agreements. See the NOTICE file distributed with this work
+    for additional information regarding copyright ownership.
+    Jasig licenses this file to you under the Apache License,
+    Version 2.0 (the "License"); you may not use this file
+    except in compliance with the License. You may obtain a
+    copy of the License at:
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on
+    an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied. See the License for the
+    specific language governing permissions and limitations
+    under the License.
+*/
+package org.bedework.synch.harness;
+
+import org.bedework.synch.SubscriptionConnectorInfoImpl;
+import org.bedework.synch.SubscriptionInfoImpl;
+import org.bedework.synch.SynchEngineImpl;
+import org.bedework.synch.bench.FeedGenerator;
+import org.bedework.synch.db.SubscriptionImpl;
+import org.bedework.synch.db.SynchDb;
+import org.bedework.synch.shared.BaseSubscriptionInfo;
+import org.bedework.synch.shared.Metrics.Histogram;
+import org.bedework.synch.shared.Subscription;
+import org.bedework.synch.shared.SynchEngine;
+import org.bedework.synch.wsmessages.SynchDirectionType;
+import org.bedework.synch.wsmessages.SynchMasterType;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.ServerSocket;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.bedework.synch.harness.HarnessConfig.bedeworkConnector;
+import static org.bedework.synch.harness.HarnessConfig.fileConnector;
+import static org.bedework.synch.harness.HarnessConfig.orgSyncConnector;
+
+/** Runs the whole engine in process against a local feed server and
+ * a stub Bedework service, and reports throughput, resynch latency
+ * and heap use for a number of subscriptions.
+ *
+ * <p>Each subscription synchs one feed one way into its own Bedework
+ * calendar. After a warmup, in which every subscription does its
+ * initial load, the feeds are changed at a fixed interval for the
+ * measured period. Run with no arguments for the defaults or -help for
+ * the options.
+ *
+ * @author Mike Douglass
+ */
+public class LoadHarness {
+  private static final String owner = "/principals/users/harness";
+
+  private static final String calPrefix = "/user/harness/calendar-";
+
+  private static class Options {
+    int subs = 100;
+    int events = 200;
+    int changeEvery = 10;
+    double orgSync;
+    int refreshSeconds = 5;
+    int changeSeconds = 15;
+    int warmupSeconds = 120;
+    int seconds = 120;
+    int feedLatency;
+    double feedErrors;
+    FeedServer.ChangeTokens tokens = FeedServer.ChangeTokens.etag;
+    int bwLatency;
+    int poolSize = 10;
+    String dbUrl = "jdbc:h2:mem:bwsynch;DB_CLOSE_DELAY=-1";
+
+    static Options parse(final String[] args) {
+      final Options o = new Options();
+
+      for (int i = 0; i < args.length; i++) {
+        final String name = args[i];
+
+        if ("-help".equals(name) || (i + 1 == args.length)) {
+          usage();
+        }
+
+        final String val = args[++i];
+
+        switch (name) {
+          case "-subs" -> o.subs = Integer.parseInt(val);
+          case "-events" -> o.events = Integer.parseInt(val);
+          case "-changeEvery" -> o.changeEvery = Integer.parseInt(val);
+          case "-orgSync" -> o.orgSync = Double.parseDouble(val);
+          case "-refresh" -> o.refreshSeconds = Integer.parseInt(val);
+          case "-change" -> o.changeSeconds = Integer.parseInt(val);
+          case "-warmup" -> o.warmupSeconds = Integer.parseInt(val);
+          case "-seconds" -> o.seconds = Integer.parseInt(val);
+          case "-feedLatency" -> o.feedLatency = Integer.parseInt(val);
+          case "-feedErrors" -> o.feedErrors = Double.parseDouble(val);
+          case "-tokens" -> o.tokens = FeedServer.ChangeTokens.valueOf(val);
+          case "-bwLatency" -> o.bwLatency = Integer.parseInt(val);
+          case "-pool" -> o.poolSize = Integer.parseInt(val);
+          case "-db" -> o.dbUrl = val;
+          default -> usage();
+        }
+      }
+
+      return o;
+    }
+
+    static void usage() {
+      System.out.println("""
+        Options (defaults in brackets):
+          -subs n          subscriptions (100)
+          -events n        events in each feed (200)
+          -changeEvery n   1 in n events changes with each feed change (10)
+          -orgSync f       fraction of subscriptions on OrgSync feeds (0)
+          -refresh s       subscription poll interval in seconds (5)
+          -change s        seconds between feed changes (15)
+          -warmup s        max seconds allowed for the initial load (120)
+          -seconds s       measured period in seconds (120)
+          -feedLatency ms  added to each feed response (0)
+          -feedErrors f    fraction of feed requests failed with a 500 (0)
+          -tokens t        etag, lastModified or none (etag)
+          -bwLatency ms    added to each stub Bedework call (0)
+          -pool n          synchling pool size (10)
+          -db url          jdbc url (in memory H2)""");
+      System.exit(1);
+    }
+  }
+
+  /**
+   * @param args options - see Options.usage
+   * @throws Exception on failure to set up
+   */
+  public static void main(final String[] args) throws Exception {
+    final Options opts = Options.parse(args);
+
+    final FeedServer feeds = new FeedServer(opts.events,
+                                            opts.changeEvery);
+    feeds.setLatencyMillis(opts.feedLatency);
+    feeds.setErrorRate(opts.feedErrors);
+    feeds.setChangeTokens(opts.tokens);
+    feeds.start();
+
+    final String bwAddress = "http://localhost:" + freePort() +
+            "/synchws/";
+    final StubBedework bw = new StubBedework();
+    bw.setLatencyMillis(opts.bwLatency);
+    bw.setItemSource(itemSource(feeds, opts.changeEvery));
+    bw.publish(bwAddress);
+
+    final HarnessConfig conf = new HarnessConfig(opts.dbUrl,
+                                                 feeds,
+                                                 bwAddress + "?wsdl",
+                                                 opts.poolSize);
+    SynchEngineImpl.setConfigHolder(conf);
+
+    addSubscriptions(conf, opts, feeds);
+
+    final MemoryMXBean mem = ManagementFactory.getMemoryMXBean();
+    final AtomicLong peakHeap = new AtomicLong();
+    final ScheduledExecutorService sampler =
+            Executors.newSingleThreadScheduledExecutor(r -> {
+              final Thread t = new Thread(r, "HeapSampler");
+              t.setDaemon(true);
+              return t;
+            });
+    sampler.scheduleAtFixedRate(
+            () -> peakHeap.accumulateAndGet(
+                    mem.getHeapMemoryUsage().getUsed(), Math::max),
+            0, 250, TimeUnit.MILLISECONDS);
+
+    final SynchEngine syncher = SynchEngineImpl.getSyncher();
+    syncher.start();
+
+    final Histogram resynchs =
+            syncher.getMetrics().histogram("resynch millis");
+
+    /* Warmup - wait for the initial load */
+    final long warmupStart = System.currentTimeMillis();
+    final long warmupEnd = warmupStart + opts.warmupSeconds * 1000L;
+
+    while ((resynchs.getCount() < opts.subs) &&
+            (System.currentTimeMillis() < warmupEnd)) {
+      Thread.sleep(500);
+    }
+
+    final long warmupMillis = System.currentTimeMillis() - warmupStart;
+    final long loaded = resynchs.getCount();
+    final long warmupPeak = peakHeap.getAndSet(0);
+
+    /* Measured period */
+    final Histogram before = resynchs.copy();
+    final long feedReqs = feeds.getRequests();
+    final long feedNotModified = feeds.getNotModified();
+    final long feedErrors = feeds.getErrors();
+    final long feedBytes = feeds.getBytesSent();
+    final long bwQueries = bw.getQueries();
+    final long bwAdds = bw.getAdds();
+    final long bwUpdates = bw.getUpdates();
+    final long bwDeletes = bw.getDeletes();
+
+    final long start = System.currentTimeMillis();
+    final long end = start + opts.seconds * 1000L;
+    long nextChange = start;
+
+    while (true) {
+      final long now = System.currentTimeMillis();
+      if (now >= end) {
+        break;
+      }
+
+      if (now >= nextChange) {
+        feeds.advanceAll();
+        nextChange += opts.changeSeconds * 1000L;
+      }
+
+      Thread.sleep(Math.min(end, nextChange) - now);
+    }
+
+    final long elapsed = System.currentTimeMillis() - start;
+    final Histogram measured = resynchs.since(before);
+
+    System.gc();
+    final long liveHeap = mem.getHeapMemoryUsage().getUsed();
+
+    System.out.printf("""
+
+      ==== bw-synch load harness ====
+      subscriptions       %d (%d OrgSync), %d events each
+      warmup              %d of %d initial loads in %.1fs, peak heap %s
+      measured            %.1fs, feeds changed every %ds
+      resynchs            %d (%.2f/sec)
+      resynch millis      p50 %d  p99 %d  mean %.1f  max %d
+      feed requests       %d (%d not modified, %d failed), %s sent
+      bedework calls      %d queries, %d adds, %d updates, %d deletes
+      heap                peak %s, live after gc %s
+      bedework items      %d
+      """,
+                      opts.subs, orgSyncCount(opts), opts.events,
+                      loaded, opts.subs, warmupMillis / 1000.0,
+                      mb(warmupPeak),
+                      elapsed / 1000.0, opts.changeSeconds,
+                      measured.getCount(),
+                      measured.getCount() * 1000.0 / elapsed,
+                      measured.getPercentile(0.5),
+                      measured.getPercentile(0.99),
+                      mean(measured),
+                      resynchs.getMax(),
+                      feeds.getRequests() - feedReqs,
+                      feeds.getNotModified() - feedNotModified,
+                      feeds.getErrors() - feedErrors,
+                      mb(feeds.getBytesSent() - feedBytes),
+                      bw.getQueries() - bwQueries,
+                      bw.getAdds() - bwAdds,
+                      bw.getUpdates() - bwUpdates,
+                      bw.getDeletes() - bwDeletes,
+                      mb(peakHeap.get()), mb(liveHeap),
+                      bw.getItemCount());
+
+    sampler.shutdownNow();
+    syncher.stop();
+    bw.stop();
+    feeds.stop();
+
+    /* The Bedework connector ping thread does not exit */
+    System.exit(0);
+  }
+
+  /* ==============================================================
+   *                   Private methods
+   * ============================================================== */
+
+  private static void addSubscriptions(final HarnessConfig conf,
+                                       final Options opts,
+                                       final FeedServer feeds) {
+    final int orgSyncCt = orgSyncCount(opts);
+    final long refreshMillis = opts.refreshSeconds * 1000L;
+    final SynchDb db = new SynchDb(conf.getConfig());
+
+    db.open();
+    try {
+      for (int i = 0; i < opts.subs; i++) {
+        db.add(subscription(i, i < orgSyncCt, feeds, refreshMillis));
+      }
+    } finally {
+      db.close();
+    }
+  }
+
+  private static Subscription subscription(final int i,
+                                           final boolean orgSync,
+                                           final FeedServer feeds,
+                                           final long refreshMillis) {
+    final Subscription sub = new SubscriptionImpl(null);
+
+    sub.setOwner(owner);
+    sub.setDirectionEnum(SynchDirectionType.A_TO_B);
+    sub.setMasterEnum(SynchMasterType.A);
+    sub.setInfo(new SubscriptionInfoImpl());
+
+    final SubscriptionConnectorInfoImpl a =
+            new SubscriptionConnectorInfoImpl();
+    final BaseSubscriptionInfo aInfo = new BaseSubscriptionInfo(a);
+
+    if (orgSync) {
+      a.setConnectorId(orgSyncConnector);
+      aInfo.setUri(feeds.getOrgSyncUri(i));
+    } else {
+      a.setConnectorId(fileConnector);
+      aInfo.setUri(feeds.getIcsUri(i));
+    }
+    aInfo.setRefreshDelay(String.valueOf(refreshMillis));
+    sub.setEndAConnectorInfo(a);
+
+    final SubscriptionConnectorInfoImpl b =
+            new SubscriptionConnectorInfoImpl();
+    final BaseSubscriptionInfo bInfo = new BaseSubscriptionInfo(b);
+
+    b.setConnectorId(bedeworkConnector);
+    bInfo.setUri(calPrefix + i);
+    bInfo.setPrincipalHref(owner);
+    sub.setEndBConnectorInfo(b);
+
+    return sub;
+  }
+
+  /* Updated iCalendar items are replaced with the current version
+   * from the feed. OrgSync items are left as they are.
+   */
+  private static StubBedework.ItemSource itemSource(
+          final FeedServer feeds,
+          final int changeEvery) {
+    final FeedGenerator gen = new FeedGenerator(changeEvery);
+
+    return (calHref, uid) -> {
+      final int i = FeedGenerator.index(uid);
+      if ((i < 0) || !calHref.startsWith(calPrefix)) {
+        return null;
+      }
+
+      final int feed =
+              Integer.parseInt(calHref.substring(calPrefix.length()));
+
+      return gen.xcalEvent(i, feeds.getVersion(feed));
+    };
+  }
+
+  private static int orgSyncCount(final Options opts) {
+    return (int)Math.round(opts.subs * opts.orgSync);
+  }
+
+  private static double mean(final Histogram h) {
+    if (h.getCount() == 0) {
+      return 0;
+    }
+
+    return (double)h.getTotal() / h.getCount();
+  }
+
+  private static String mb(final long bytes) {
+    return String.format("%.1fMB", bytes / (1024.0 * 1024.0));
+  }
+
+  private static int freePort() throws IOException {
+    try (final ServerSocket s = new ServerSocket(0)) {
+      return s.getLocalPort();
+    }
+  }
+}
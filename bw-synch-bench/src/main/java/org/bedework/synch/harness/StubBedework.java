@@ -0,0 +1,511 @@
+/* ********************************************************************
+    Licensed to Jasig under one or more contributor license
+    agreements. See the NOTICE file distributed with this work
+    for additional information regarding copyright ownership.
+    Jasig licenses this file to you under the Apache License,
+    Version 2.0 (the "License"); you may not use this file
+    except in compliance with the License. You may obtain a
+    copy of the License at:
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on
+    an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied. See the License for the
+    specific language governing permissions and limitations
+    under the License.
+*/
+package org.bedework.synch.harness;
+
+import org.bedework.synch.shared.SynchDefs;
+import org.bedework.synch.wsmessages.GetInfoRequestType;
+import org.bedework.synch.wsmessages.GetInfoResponseType;
+import org.bedework.synch.wsmessages.KeepAliveNotificationType;
+import org.bedework.synch.wsmessages.KeepAliveResponseType;
+import org.bedework.synch.wsmessages.RefreshRequestType;
+import org.bedework.synch.wsmessages.RefreshResponseType;
+import org.bedework.synch.wsmessages.StartServiceNotificationType;
+import org.bedework.synch.wsmessages.StartServiceResponseType;
+import org.bedework.synch.wsmessages.SubscribeRequestType;
+import org.bedework.synch.wsmessages.SubscribeResponseType;
+import org.bedework.synch.wsmessages.SubscriptionStatusRequestType;
+import org.bedework.synch.wsmessages.SubscriptionStatusResponseType;
+import org.bedework.synch.wsmessages.SynchIdTokenType;
+import org.bedework.synch.wsmessages.SynchRemoteServicePortType;
+import org.bedework.synch.wsmessages.UnsubscribeRequestType;
+import org.bedework.synch.wsmessages.UnsubscribeResponseType;
+import org.bedework.util.calendar.XcalUtil;
+import org.bedework.util.xml.tagdefs.XcalTags;
+
+import ietf.params.xml.ns.icalendar_2.BaseComponentType;
+import ietf.params.xml.ns.icalendar_2.IcalendarType;
+import ietf.params.xml.ns.icalendar_2.UidPropType;
+import ietf.params.xml.ns.icalendar_2.VcalendarType;
+import jakarta.jws.WebService;
+import jakarta.xml.bind.JAXBElement;
+import jakarta.xml.ws.Endpoint;
+import org.oasis_open.docs.ws_calendar.ns.soap.AddItemResponseType;
+import org.oasis_open.docs.ws_calendar.ns.soap.AddItemType;
+import org.oasis_open.docs.ws_calendar.ns.soap.BaseResponseType;
+import org.oasis_open.docs.ws_calendar.ns.soap.CalendarDataResponseType;
+import org.oasis_open.docs.ws_calendar.ns.soap.CalendarMultigetType;
+import org.oasis_open.docs.ws_calendar.ns.soap.CalendarQueryResponseType;
+import org.oasis_open.docs.ws_calendar.ns.soap.CalendarQueryType;
+import org.oasis_open.docs.ws_calendar.ns.soap.CompFilterType;
+import org.oasis_open.docs.ws_calendar.ns.soap.DeleteItemResponseType;
+import org.oasis_open.docs.ws_calendar.ns.soap.DeleteItemType;
+import org.oasis_open.docs.ws_calendar.ns.soap.FetchItemResponseType;
+import org.oasis_open.docs.ws_calendar.ns.soap.FetchItemType;
+import org.oasis_open.docs.ws_calendar.ns.soap.FilterType;
+import org.oasis_open.docs.ws_calendar.ns.soap.GetPropertiesResponseType;
+import org.oasis_open.docs.ws_calendar.ns.soap.GetPropertiesType;
+import org.oasis_open.docs.ws_calendar.ns.soap.MultistatResponseElementType;
+import org.oasis_open.docs.ws_calendar.ns.soap.MultistatusPropElementType;
+import org.oasis_open.docs.ws_calendar.ns.soap.PropFilterType;
+import org.oasis_open.docs.ws_calendar.ns.soap.PropstatType;
+import org.oasis_open.docs.ws_calendar.ns.soap.StatusType;
+import org.oasis_open.docs.ws_calendar.ns.soap.UpdateItemResponseType;
+import org.oasis_open.docs.ws_calendar.ns.soap.UpdateItemType;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/** In-memory stand-in for the Bedework end of the synch web service.
+ * Calendars are created on first use and hold the items added to
+ * them. Only the operations the Bedework connector calls are
+ * implemented - the rest return an error status.
+ *
+ * <p>Updates are not applied property by property. If an item source
+ * is set the updated item is replaced by its current version from the
+ * source, otherwise only the change token changes.
+ *
+ * @author Mike Douglass
+ */
+@WebService(serviceName = "SynchRemoteService",
+            portName = "SynchRSPort",
+            targetNamespace = SynchDefs.synchNamespace,
+            endpointInterface =
+                    "org.bedework.synch.wsmessages.SynchRemoteServicePortType")
+public class StubBedework implements SynchRemoteServicePortType {
+  /** Supplies the current version of an updated item
+   */
+  public interface ItemSource {
+    /**
+     * @param calHref href of the calendar
+     * @param uid of the item
+     * @return current version or null to leave the item as it is
+     */
+    IcalendarType current(String calHref,
+                          String uid);
+  }
+
+  private record Item(String calHref,
+                      String uid,
+                      String href,
+                      String changeToken,
+                      IcalendarType ical) {
+  }
+
+  private final Map<String, Map<String, Item>> calendars =
+          new ConcurrentHashMap<>();
+
+  private final Map<String, Item> byHref = new ConcurrentHashMap<>();
+
+  private final AtomicLong seq = new AtomicLong();
+
+  private final String token = UUID.randomUUID().toString();
+
+  private volatile ItemSource itemSource;
+
+  private volatile int latencyMillis;
+
+  private Endpoint endpoint;
+
+  private final LongAdder queries = new LongAdder();
+
+  private final LongAdder adds = new LongAdder();
+
+  private final LongAdder updates = new LongAdder();
+
+  private final LongAdder deletes = new LongAdder();
+
+  /**
+   * @param address to publish at, e.g. http://localhost:8765/synchws/
+   */
+  public void publish(final String address) {
+    endpoint = Endpoint.publish(address, this);
+  }
+
+  /**
+   */
+  public void stop() {
+    if (endpoint != null) {
+      endpoint.stop();
+      endpoint = null;
+    }
+  }
+
+  /**
+   * @param val source of updated items - null to just touch them
+   */
+  public void setItemSource(final ItemSource val) {
+    itemSource = val;
+  }
+
+  /**
+   * @param val millisecs added to each call
+   */
+  public void setLatencyMillis(final int val) {
+    latencyMillis = val;
+  }
+
+  /**
+   * @return number of items held
+   */
+  public int getItemCount() {
+    return byHref.size();
+  }
+
+  /**
+   * @return calendar queries - listings and fetches
+   */
+  public long getQueries() {
+    return queries.sum();
+  }
+
+  /**
+   * @return items added
+   */
+  public long getAdds() {
+    return adds.sum();
+  }
+
+  /**
+   * @return items updated
+   */
+  public long getUpdates() {
+    return updates.sum();
+  }
+
+  /**
+   * @return items deleted
+   */
+  public long getDeletes() {
+    return deletes.sum();
+  }
+
+  /* ==============================================================
+   *                   SynchRemoteServicePortType methods
+   * ============================================================== */
+
+  @Override
+  public StartServiceResponseType startService(
+          final StartServiceNotificationType request) {
+    final StartServiceResponseType resp = new StartServiceResponseType();
+
+    resp.setStatus(StatusType.OK);
+    resp.setToken(token);
+
+    return resp;
+  }
+
+  @Override
+  public KeepAliveResponseType pingService(
+          final KeepAliveNotificationType request) {
+    final KeepAliveResponseType resp = new KeepAliveResponseType();
+
+    if (token.equals(request.getToken())) {
+      resp.setStatus(StatusType.OK);
+    } else {
+      resp.setStatus(StatusType.ERROR);
+    }
+
+    return resp;
+  }
+
+  @Override
+  public GetInfoResponseType getInfo(final SynchIdTokenType idToken,
+                                     final GetInfoRequestType request) {
+    return unsupported(new GetInfoResponseType());
+  }
+
+  @Override
+  public SubscribeResponseType subscribe(
+          final SynchIdTokenType idToken,
+          final SubscribeRequestType request) {
+    return unsupported(new SubscribeResponseType());
+  }
+
+  @Override
+  public UnsubscribeResponseType unsubscribe(
+          final SynchIdTokenType idToken,
+          final UnsubscribeRequestType request) {
+    return unsupported(new UnsubscribeResponseType());
+  }
+
+  @Override
+  public RefreshResponseType refresh(final SynchIdTokenType idToken,
+                                     final RefreshRequestType request) {
+    return unsupported(new RefreshResponseType());
+  }
+
+  @Override
+  public SubscriptionStatusResponseType subscriptionStatus(
+          final SynchIdTokenType idToken,
+          final SubscriptionStatusRequestType request) {
+    return unsupported(new SubscriptionStatusResponseType());
+  }
+
+  @Override
+  public GetPropertiesResponseType getProperties(
+          final SynchIdTokenType idToken,
+          final GetPropertiesType request) {
+    final GetPropertiesResponseType resp = new GetPropertiesResponseType();
+
+    resp.setStatus(StatusType.OK);
+
+    return resp;
+  }
+
+  @Override
+  public CalendarQueryResponseType calendarQuery(
+          final SynchIdTokenType idToken,
+          final CalendarQueryType request) {
+    pause();
+    queries.increment();
+
+    final CalendarQueryResponseType resp =
+            new CalendarQueryResponseType();
+    resp.setStatus(StatusType.OK);
+
+    final Map<String, Item> cal = calendars.get(request.getHref());
+    if (cal == null) {
+      return resp;
+    }
+
+    final String uid = uidMatch(request.getFilter());
+
+    if (uid != null) {
+      final Item item = cal.get(uid);
+      if (item != null) {
+        resp.getResponse().add(response(item));
+      }
+
+      return resp;
+    }
+
+    for (final Item item: cal.values()) {
+      resp.getResponse().add(response(item));
+    }
+
+    return resp;
+  }
+
+  @Override
+  public CalendarQueryResponseType calendarMultiget(
+          final SynchIdTokenType idToken,
+          final CalendarMultigetType request) {
+    return unsupported(new CalendarQueryResponseType());
+  }
+
+  @Override
+  public AddItemResponseType addItem(final SynchIdTokenType idToken,
+                                     final AddItemType request) {
+    pause();
+
+    final AddItemResponseType resp = new AddItemResponseType();
+    final String uid = uid(request.getIcalendar());
+
+    if (uid == null) {
+      resp.setStatus(StatusType.ERROR);
+      resp.setMessage("No uid");
+      return resp;
+    }
+
+    final Map<String, Item> cal =
+            calendars.computeIfAbsent(request.getHref(),
+                                      h -> new ConcurrentHashMap<>());
+
+    if (cal.containsKey(uid)) {
+      resp.setStatus(StatusType.ERROR);
+      resp.setMessage("Item exists");
+      return resp;
+    }
+
+    final Item item = new Item(request.getHref(),
+                               uid,
+                               request.getHref() + "/" +
+                                       seq.incrementAndGet() + ".ics",
+                               changeToken(),
+                               request.getIcalendar());
+    cal.put(uid, item);
+    byHref.put(item.href(), item);
+    adds.increment();
+
+    resp.setStatus(StatusType.OK);
+
+    return resp;
+  }
+
+  @Override
+  public FetchItemResponseType fetchItem(final SynchIdTokenType idToken,
+                                         final FetchItemType request) {
+    return unsupported(new FetchItemResponseType());
+  }
+
+  @Override
+  public DeleteItemResponseType deleteItem(final SynchIdTokenType idToken,
+                                           final DeleteItemType request) {
+    pause();
+
+    final DeleteItemResponseType resp = new DeleteItemResponseType();
+    final Item item = byHref.remove(request.getHref());
+
+    if (item == null) {
+      resp.setStatus(StatusType.NOT_FOUND);
+      return resp;
+    }
+
+    final Map<String, Item> cal = calendars.get(item.calHref());
+    if (cal != null) {
+      cal.remove(item.uid());
+    }
+    deletes.increment();
+
+    resp.setStatus(StatusType.OK);
+
+    return resp;
+  }
+
+  @Override
+  public UpdateItemResponseType updateItem(final SynchIdTokenType idToken,
+                                           final UpdateItemType request) {
+    pause();
+
+    final UpdateItemResponseType resp = new UpdateItemResponseType();
+    final Item item = byHref.get(request.getHref());
+
+    if (item == null) {
+      resp.setStatus(StatusType.NOT_FOUND);
+      return resp;
+    }
+
+    IcalendarType ical = null;
+    final ItemSource src = itemSource;
+    if (src != null) {
+      ical = src.current(item.calHref(), item.uid());
+    }
+
+    if (ical == null) {
+      ical = item.ical();
+    }
+
+    final Item updated = new Item(item.calHref(),
+                                  item.uid(),
+                                  item.href(),
+                                  changeToken(),
+                                  ical);
+    byHref.put(updated.href(), updated);
+    calendars.get(updated.calHref()).put(updated.uid(), updated);
+    updates.increment();
+
+    resp.setStatus(StatusType.OK);
+
+    return resp;
+  }
+
+  /* ==============================================================
+   *                   Private methods
+   * ============================================================== */
+
+  private String changeToken() {
+    return token + "-" + seq.incrementAndGet();
+  }
+
+  private void pause() {
+    final int latency = latencyMillis;
+
+    if (latency <= 0) {
+      return;
+    }
+
+    try {
+      Thread.sleep(latency);
+    } catch (final InterruptedException ie) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static <T extends BaseResponseType> T unsupported(final T resp) {
+    resp.setStatus(StatusType.ERROR);
+    resp.setMessage("Not supported by the stub");
+
+    return resp;
+  }
+
+  private static MultistatResponseElementType response(final Item item) {
+    final CalendarDataResponseType cd = new CalendarDataResponseType();
+    cd.setIcalendar(item.ical());
+
+    final MultistatusPropElementType prop =
+            new MultistatusPropElementType();
+    prop.setCalendarData(cd);
+
+    final PropstatType ps = new PropstatType();
+    ps.setStatus(StatusType.OK);
+    ps.getProp().add(prop);
+
+    final MultistatResponseElementType mre =
+            new MultistatResponseElementType();
+    mre.setHref(item.href());
+    mre.setChangeToken(item.changeToken());
+    mre.getPropstat().add(ps);
+
+    return mre;
+  }
+
+  /* The connector only filters on uid when fetching a single item */
+  private static String uidMatch(final FilterType filter) {
+    if ((filter == null) || (filter.getCompFilter() == null)) {
+      return null;
+    }
+
+    for (final CompFilterType cf: filter.getCompFilter().getCompFilter()) {
+      for (final PropFilterType pf: cf.getPropFilter()) {
+        if (pf.getTextMatch() != null) {
+          return pf.getTextMatch().getValue();
+        }
+      }
+    }
+
+    return null;
+  }
+
+  private static String uid(final IcalendarType ical) {
+    if ((ical == null) || ical.getVcalendar().isEmpty()) {
+      return null;
+    }
+
+    final VcalendarType vcal = ical.getVcalendar().get(0);
+    if ((vcal.getComponents() == null) ||
+            vcal.getComponents().getBaseComponent().isEmpty()) {
+      return null;
+    }
+
+    final JAXBElement<? extends BaseComponentType> comp =
+            vcal.getComponents().getBaseComponent().get(0);
+    final UidPropType uid =
+            (UidPropType)XcalUtil.findProperty(comp.getValue(),
+                                               XcalTags.uid);
+
+    if (uid == null) {
+      return null;
+    }
+
+    return uid.getText();
+  }
+}
@@ -18,19 +18,17 @@
 */
 package org.bedework.synch;
 
+import org.bedework.synch.shared.JaxbRegistry;
 import org.bedework.synch.shared.exception.SynchException;
 import org.bedework.util.logging.BwLogger;
 import org.bedework.util.logging.Logged;
-import org.bedework.util.xml.XmlUtil;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.StringWriter;
 import java.io.Writer;
 
-import jakarta.xml.bind.JAXBContext;
 import jakarta.xml.bind.Marshaller;
-import jakarta.xml.soap.MessageFactory;
 import jakarta.xml.soap.SOAPMessage;
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.sax.SAXTransformerFactory;
@@ -42,13 +40,16 @@ import javax.xml.transform.stream.StreamSource;
  *   @author Mike Douglass   douglm rpi.edu
  */
 public class CalWsHelper implements Logged {
-  private MessageFactory soapMsgFactory;
-
-  /** Trace a calws SOAP message
+  /** Trace a calws SOAP message. Does nothing unless debug is
+   * enabled - the indenting is expensive.
    *
    * @param o the unmarshalled SOAP message
    */
   public void traceSoap(final Object o) {
+    if (!debug()) {
+      return;
+    }
+
     try {
       final SOAPMessage msg = marshal(o,
                                       "org.oasis_open.docs.ns.wscal.calws_soap");
@@ -90,28 +91,21 @@ public class CalWsHelper implements Logged {
    */
   public SOAPMessage marshal(final Object o,
                                 final String jaxbContextPath) {
-    try {
-      if (soapMsgFactory == null) {
-        soapMsgFactory = MessageFactory.newInstance();
-      }
+    final Marshaller marshaller =
+            JaxbRegistry.getMarshaller(jaxbContextPath);
 
-      final JAXBContext jc = JAXBContext.newInstance(jaxbContextPath);
-
-      final Marshaller marshaller = jc.createMarshaller();
-
-      final var doc = XmlUtil.safeNewDocument(true);
-
-      final SOAPMessage msg = soapMsgFactory.createMessage();
-      msg.getSOAPBody().addDocument(doc);
+    try {
+      final SOAPMessage msg =
+              JaxbRegistry.getSoapMsgFactory().createMessage();
 
-      marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT,
-                             Boolean.TRUE);
       marshaller.marshal(o,
                          msg.getSOAPBody());
 
       return msg;
     } catch (final Exception e) {
       throw new SynchException(e);
+    } finally {
+      JaxbRegistry.release(jaxbContextPath, marshaller);
     }
   }
 
@@ -0,0 +1,373 @@
+/* ********************************************************************
+    Licensed to Jasig under one or more contributor license
+    agreements. See the NOTICE file distributed with this work
+    for additional information regarding copyright ownership.
+    Jasig licenses this file to you under the Apache License,
+    Version 2.0 (the "License"); you may not use this file
+    except in compliance with the License. You may obtain a
+    copy of the License at:
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on
+    an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied. See the License for the
+    specific language governing permissions and limitations
+    under the License.
+*/
+package org.bedework.synch;
+
+import org.bedework.synch.conf.SynchConfig;
+import org.bedework.synch.db.SynchDb;
+import org.bedework.synch.shared.Notification;
+import org.bedework.synch.shared.Notification.NotificationItem;
+import org.bedework.synch.shared.Notification.NotificationItem.ActionType;
+import org.bedework.synch.shared.Stat;
+import org.bedework.synch.shared.StatLong;
+import org.bedework.synch.shared.Subscription;
+import org.bedework.synch.shared.SynchEngine;
+import org.bedework.synch.wsmessages.SynchEndType;
+import org.bedework.util.logging.BwLogger;
+import org.bedework.util.logging.Logged;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** Item change notifications waiting to be applied.
+ *
+ * <p>Remote systems may report many changes to the same item in a
+ * short time. Changes are held for a window, keyed on subscription,
+ * end and uid, with later changes replacing earlier ones. Once the
+ * window has passed the changes for each subscription end are handed
+ * to the engine as a single notification.
+ *
+ * <p>The number held for one subscription is capped. A subscription
+ * reporting more changes than that has them all replaced by a single
+ * full resynch, which also absorbs its further changes until it is
+ * handed on.
+ *
+ * @author douglm
+ */
+public class ChangeCoalescer implements Logged {
+  private final SynchEngine syncher;
+
+  private final SynchConfig config;
+
+  private final long windowMillis;
+
+  private final int maxPerSubscription;
+
+  /* Max items in one notification */
+  private static final int maxBatchSize = 100;
+
+  record Key(SynchEndType end,
+             String uid) {
+  }
+
+  record Pending(ActionType action,
+                 long firstSeen) {
+  }
+
+  /* What is held for one subscription. Only touched inside compute
+     calls on pending so it needs no locking of its own.
+   */
+  static class SubPending {
+    final Map<Key, Pending> changes = new HashMap<>();
+
+    /* When the changes were replaced by a full resynch - 0 for not */
+    long resynchSince;
+  }
+
+  private final Map<String, SubPending> pending = new ConcurrentHashMap<>();
+
+  private final AtomicInteger waitingCt = new AtomicInteger();
+
+  private ScheduledExecutorService flusher;
+
+  private final StatLong changesCt =
+          new StatLong("item changes received");
+
+  private final StatLong coalescedCt =
+          new StatLong("item changes coalesced");
+
+  private final StatLong batchesCt =
+          new StatLong("item change batches");
+
+  private final StatLong resynchsCt =
+          new StatLong("item changes replaced by resynch");
+
+  /**
+   * @param syncher the engine
+   * @param config for our db object
+   * @param windowMillis how long changes are held
+   * @param maxPerSubscription changes held for a subscription before
+   *                           they are replaced by a full resynch
+   */
+  public ChangeCoalescer(final SynchEngine syncher,
+                         final SynchConfig config,
+                         final long windowMillis,
+                         final int maxPerSubscription) {
+    this.syncher = syncher;
+    this.config = config;
+    this.windowMillis = Math.max(windowMillis, 100);
+    this.maxPerSubscription = Math.max(maxPerSubscription, 1);
+  }
+
+  /** Start flushing held changes
+   */
+  public void start() {
+    flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+      final Thread t = new Thread(r, "SynchChangeFlusher");
+      t.setDaemon(true);
+      return t;
+    });
+
+    final long period = Math.max(windowMillis / 2, 50);
+    flusher.scheduleWithFixedDelay(this::flush,
+                                   period, period,
+                                   TimeUnit.MILLISECONDS);
+  }
+
+  /** Stop flushing. Held changes are discarded - the next resynch
+   * will pick them up.
+   */
+  public void stop() {
+    if (flusher != null) {
+      flusher.shutdownNow();
+    }
+  }
+
+  /** Hold a change to an item
+   *
+   * @param subscriptionId of the subscription
+   * @param end which reported the change
+   * @param uid of the item
+   * @param action what happened
+   */
+  public void add(final String subscriptionId,
+                  final SynchEndType end,
+                  final String uid,
+                  final ActionType action) {
+    changesCt.inc();
+
+    final long now = System.currentTimeMillis();
+
+    pending.compute(subscriptionId, (id, sp) -> {
+      if (sp == null) {
+        sp = new SubPending();
+      }
+
+      if (sp.resynchSince != 0) {
+        coalescedCt.inc();
+        return sp;
+      }
+
+      final Key key = new Key(end, uid);
+      final Pending old = sp.changes.get(key);
+
+      if (old != null) {
+        coalescedCt.inc();
+        sp.changes.put(key, new Pending(coalesce(old.action(), action),
+                                        old.firstSeen()));
+        return sp;
+      }
+
+      if (sp.changes.size() < maxPerSubscription) {
+        sp.changes.put(key, new Pending(action, now));
+        waitingCt.incrementAndGet();
+        return sp;
+      }
+
+      /* Too many - a resynch replaces them. It goes when the oldest
+         change would have.
+       */
+      long since = now;
+      for (final Pending p: sp.changes.values()) {
+        since = Math.min(since, p.firstSeen());
+      }
+
+      resynchsCt.inc();
+      waitingCt.addAndGet(1 - sp.changes.size());
+      sp.changes.clear();
+      sp.resynchSince = since;
+
+      if (debug()) {
+        debug("Too many changes for " + id + " - resynch instead");
+      }
+
+      return sp;
+    });
+  }
+
+  /**
+   * @return number of changes waiting - a resynch counts as one
+   */
+  public int getPendingCt() {
+    return waitingCt.get();
+  }
+
+  /**
+   * @return stats
+   */
+  public List<Stat> getStats() {
+    final List<Stat> stats = new ArrayList<>();
+
+    stats.add(changesCt);
+    stats.add(coalescedCt);
+    stats.add(batchesCt);
+    stats.add(resynchsCt);
+    stats.add(new Stat("item changes waiting", getPendingCt()));
+
+    return stats;
+  }
+
+  /* A deletion always wins. Anything after a deletion means the item is
+   * back so treat it as modified. A creation followed by modifications
+   * is still a creation.
+   */
+  private static ActionType coalesce(final ActionType old,
+                                     final ActionType nw) {
+    if (nw == ActionType.DeletedEvent) {
+      return nw;
+    }
+
+    if (old == ActionType.DeletedEvent) {
+      return ActionType.ModifiedEvent;
+    }
+
+    if (old == ActionType.CreatedEvent) {
+      return old;
+    }
+
+    return nw;
+  }
+
+  private void flush() {
+    try {
+      final long limit = System.currentTimeMillis() - windowMillis;
+
+      for (final String id: pending.keySet()) {
+        final SubPending ready = new SubPending();
+
+        pending.computeIfPresent(id, (k, sp) -> {
+          if (sp.resynchSince != 0) {
+            if (sp.resynchSince > limit) {
+              return sp;
+            }
+
+            ready.resynchSince = sp.resynchSince;
+            waitingCt.decrementAndGet();
+            return null;
+          }
+
+          final var it = sp.changes.entrySet().iterator();
+          while (it.hasNext()) {
+            final var me = it.next();
+            if (me.getValue().firstSeen() <= limit) {
+              ready.changes.put(me.getKey(), me.getValue());
+              it.remove();
+            }
+          }
+
+          waitingCt.addAndGet(-ready.changes.size());
+
+          if (sp.changes.isEmpty()) {
+            return null;
+          }
+
+          return sp;
+        });
+
+        if ((ready.resynchSince != 0) || !ready.changes.isEmpty()) {
+          dispatch(id, ready);
+        }
+      }
+    } catch (final Throwable t) {
+      error(t);
+    }
+  }
+
+  private void dispatch(final String subscriptionId,
+                        final SubPending ready) {
+    /* Our own db object for the lookup - the engine's is used by
+       other threads */
+    final SynchDb subDb = new SynchDb(config);
+    final Subscription sub;
+
+    subDb.open();
+    try {
+      sub = subDb.get(subscriptionId);
+    } finally {
+      subDb.close();
+    }
+
+    if ((sub == null) || sub.getDeleted()) {
+      if (debug()) {
+        debug("Dropping changes for missing subscription " +
+                      subscriptionId);
+      }
+      return;
+    }
+
+    syncher.setConnectors(sub);
+
+    if (ready.resynchSince != 0) {
+      batchesCt.inc();
+      syncher.handleNotification(
+              new Notification<>(sub, SynchEndType.NONE,
+                                 new NotificationItem(ActionType.FullSynch,
+                                                      null, null)));
+      return;
+    }
+
+    final Map<SynchEndType, List<NotificationItem>> byEnd =
+            new HashMap<>();
+
+    for (final var me: ready.changes.entrySet()) {
+      byEnd.computeIfAbsent(me.getKey().end(), k -> new ArrayList<>())
+           .add(new NotificationItem(me.getValue().action(), null,
+                                     me.getKey().uid()));
+    }
+
+    for (final var me: byEnd.entrySet()) {
+      final List<NotificationItem> items = me.getValue();
+
+      for (int i = 0; i < items.size(); i += maxBatchSize) {
+        final Notification<NotificationItem> note =
+                new Notification<>(sub, me.getKey());
+
+        for (final NotificationItem ni:
+                items.subList(i, Math.min(i + maxBatchSize,
+                                          items.size()))) {
+          note.addNotificationItem(ni);
+        }
+
+        batchesCt.inc();
+        syncher.handleNotification(note);
+      }
+    }
+  }
+
+  /* ==============================================================
+   *                   Logged methods
+   * ============================================================== */
+
+  private final BwLogger logger = new BwLogger();
+
+  @Override
+  public BwLogger getLogger() {
+    if ((logger.getLoggedClass() == null) && (logger.getLoggedName() == null)) {
+      logger.setLoggedClass(getClass());
+    }
+
+    return logger;
+  }
+}
@@ -0,0 +1,367 @@
+/* ********************************************************************
+    Licensed to Jasig under one or more contributor license
+    agreements. See the NOTICE file distributed with this work
+    for additional information regarding copyright ownership.
+    Jasig licenses this file to you under the Apache License,
+    Version 2.0 (the "License"); you may not use this file
+    except in compliance with the License. You may obtain a
+    copy of the License at:
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on
+    an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied. See the License for the
+    specific language governing permissions and limitations
+    under the License.
+*/
+package org.bedework.synch;
+
+import org.bedework.synch.conf.SynchConfig;
+import org.bedework.synch.db.NodeLease;
+import org.bedework.synch.db.SynchDb;
+import org.bedework.synch.shared.Stat;
+import org.bedework.synch.shared.StatLong;
+import org.bedework.synch.shared.exception.SynchException;
+import org.bedework.util.logging.BwLogger;
+import org.bedework.util.logging.Logged;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/** Membership of a cluster of synch engines sharing one database.
+ *
+ * <p>Each node holds a lease in the database which it renews at a
+ * third of the lease period. Nodes with unexpired leases are the live
+ * members. Subscriptions are shared between them with a consistent
+ * hash of the subscription id so that a node joining or leaving only
+ * moves the subscriptions it takes or gives up.
+ *
+ * <p>Nodes have no other contact with each other. A node which cannot
+ * reach the database keeps its last view until it can.
+ *
+ * <p>Expiry is set from the renewing node's clock, so another node's
+ * lease is only treated as expired once it is older than the allowed
+ * clock skew. Node clocks must agree to within that margin or a live
+ * node may be dropped from the ring.
+ *
+ * @author Mike Douglass
+ */
+public class ClusterMembership implements Logged {
+  /** Told about each lease renewal.
+   */
+  public interface Listener {
+    /**
+     * @param previous the ring before this renewal if the members
+     *                 changed - otherwise null
+     */
+    void renewed(Ring previous);
+  }
+
+  /** Clock skew allowed when no value is configured */
+  private static final int defaultClockSkewSeconds = 30;
+
+  /** Points on the ring for each node - spreads the load */
+  private static final int pointsPerNode = 64;
+
+  /** Which node owns which subscriptions. Immutable.
+   */
+  public static class Ring {
+    private final TreeMap<Long, String> points = new TreeMap<>();
+
+    private final List<String> nodes;
+
+    Ring(final List<String> nodes) {
+      this.nodes = nodes;
+
+      for (final String node: nodes) {
+        for (int i = 0; i < pointsPerNode; i++) {
+          points.put(hash(node + "#" + i), node);
+        }
+      }
+    }
+
+    /**
+     * @param subscriptionId of subscription
+     * @return id of owning node or null for an empty ring
+     */
+    public String owner(final String subscriptionId) {
+      if (points.isEmpty()) {
+        return null;
+      }
+
+      final SortedMap<Long, String> tail =
+              points.tailMap(hash(subscriptionId));
+
+      if (tail.isEmpty()) {
+        return points.firstEntry().getValue();
+      }
+
+      return tail.get(tail.firstKey());
+    }
+
+    /**
+     * @return live node ids in order
+     */
+    public List<String> getNodes() {
+      return nodes;
+    }
+  }
+
+  private final SynchConfig config;
+
+  private final long leaseMillis;
+
+  private final long skewMillis;
+
+  private final Listener listener;
+
+  private final String nodeId;
+
+  private volatile Ring ring;
+
+  private ScheduledExecutorService renewer;
+
+  private final StatLong renewalsCt =
+          new StatLong("cluster lease renewals");
+
+  private final StatLong renewalFailuresCt =
+          new StatLong("cluster lease renewal failures");
+
+  private final StatLong rebalancesCt =
+          new StatLong("cluster rebalances");
+
+  /**
+   * @param config engine configuration - for our database objects
+   * @param leaseSeconds lease period
+   * @param skewSeconds clock difference allowed between nodes -
+   *                    0 for the default, negative for none
+   * @param listener told about each renewal
+   */
+  public ClusterMembership(final SynchConfig config,
+                           final int leaseSeconds,
+                           final int skewSeconds,
+                           final Listener listener) {
+    this.config = config;
+    leaseMillis = leaseSeconds * 1000L;
+
+    if (skewSeconds == 0) {
+      skewMillis = defaultClockSkewSeconds * 1000L;
+    } else {
+      skewMillis = Math.max(skewSeconds, 0) * 1000L;
+    }
+    this.listener = listener;
+
+    nodeId = ManagementFactory.getRuntimeMXBean().getName() + "-" +
+            UUID.randomUUID().toString().substring(0, 8);
+
+    ring = new Ring(List.of(nodeId));
+  }
+
+  /** Take out our lease and start renewing it. The first renewal is
+   * made before returning so that we know the members.
+   */
+  public void start() {
+    info("Joining cluster as " + nodeId);
+
+    renew();
+
+    renewer = Executors.newSingleThreadScheduledExecutor(r -> {
+      final Thread t = new Thread(r, "SynchClusterLease");
+      t.setDaemon(true);
+      return t;
+    });
+
+    final long period = Math.max(leaseMillis / 3, 1000);
+    renewer.scheduleWithFixedDelay(this::renewAndNotify,
+                                   period, period,
+                                   TimeUnit.MILLISECONDS);
+  }
+
+  /** Stop renewing and give up our lease so the other nodes take our
+   * subscriptions without waiting for it to expire.
+   */
+  public void stop() {
+    if (renewer != null) {
+      renewer.shutdownNow();
+    }
+
+    final SynchDb db = new SynchDb(config);
+
+    try {
+      db.open();
+
+      for (final NodeLease nl: db.getLeases()) {
+        if (nl.getNodeId().equals(nodeId)) {
+          db.deleteLease(nl);
+        }
+      }
+    } catch (final Throwable t) {
+      warn("Unable to remove cluster lease: " + t.getMessage());
+    } finally {
+      db.close();
+    }
+  }
+
+  /**
+   * @return our node id
+   */
+  public String getNodeId() {
+    return nodeId;
+  }
+
+  /**
+   * @return the current ring
+   */
+  public Ring getRing() {
+    return ring;
+  }
+
+  /**
+   * @param subscriptionId of subscription
+   * @return true if this node handles the subscription
+   */
+  public boolean owns(final String subscriptionId) {
+    return owns(ring, subscriptionId);
+  }
+
+  /**
+   * @param r a ring
+   * @param subscriptionId of subscription
+   * @return true if this node handles the subscription in that ring
+   */
+  public boolean owns(final Ring r,
+                      final String subscriptionId) {
+    return nodeId.equals(r.owner(subscriptionId));
+  }
+
+  /** Get the current stats
+   *
+   * @return List of Stat
+   */
+  public List<Stat> getStats() {
+    final List<Stat> stats = new ArrayList<>();
+
+    stats.add(new Stat("cluster nodes", ring.getNodes().size()));
+    stats.add(renewalsCt);
+    stats.add(renewalFailuresCt);
+    stats.add(rebalancesCt);
+
+    return stats;
+  }
+
+  /* ==============================================================
+   *                   Private methods
+   * ============================================================== */
+
+  private void renewAndNotify() {
+    final Ring previous;
+
+    try {
+      previous = renew();
+    } catch (final Throwable t) {
+      renewalFailuresCt.inc();
+      error("Unable to renew cluster lease: " + t.getMessage());
+      return;
+    }
+
+    try {
+      listener.renewed(previous);
+    } catch (final Throwable t) {
+      error(t);
+    }
+  }
+
+  /* Returns the previous ring if the members changed */
+  private Ring renew() {
+    final SynchDb db = new SynchDb(config);
+    final TreeSet<String> live = new TreeSet<>();
+    final long now = System.currentTimeMillis();
+
+    try {
+      db.open();
+
+      db.renewLease(nodeId, now + leaseMillis);
+
+      for (final NodeLease nl: db.getLeases()) {
+        if (nl.getExpires() + skewMillis > now) {
+          if (nl.getExpires() > now + leaseMillis + skewMillis) {
+            warn("Lease for " + nl.getNodeId() +
+                         " expires too far ahead - check node clocks");
+          }
+          live.add(nl.getNodeId());
+          continue;
+        }
+
+        if (debug()) {
+          debug("Removing expired lease for " + nl.getNodeId());
+        }
+        db.deleteLease(nl);
+      }
+    } finally {
+      db.close();
+    }
+
+    renewalsCt.inc();
+
+    /* We just renewed so are always a member */
+    live.add(nodeId);
+
+    final Ring previous = ring;
+
+    if (previous.getNodes().equals(new ArrayList<>(live))) {
+      return null;
+    }
+
+    ring = new Ring(List.copyOf(live));
+    rebalancesCt.inc();
+
+    info("Cluster members now " + live);
+
+    return previous;
+  }
+
+  /* First 8 bytes of the md5 - String.hashCode clusters too much */
+  private static long hash(final String val) {
+    try {
+      final byte[] d = MessageDigest.getInstance("MD5")
+                                    .digest(val.getBytes(
+                                            StandardCharsets.UTF_8));
+      long h = 0;
+
+      for (int i = 0; i < 8; i++) {
+        h = (h << 8) | (d[i] & 0xff);
+      }
+
+      return h;
+    } catch (final Throwable t) {
+      throw new SynchException(t);
+    }
+  }
+
+  /* ==============================================================
+   *                   Logged methods
+   * ============================================================== */
+
+  private final BwLogger logger = new BwLogger();
+
+  @Override
+  public BwLogger getLogger() {
+    if ((logger.getLoggedClass() == null) && (logger.getLoggedName() == null)) {
+      logger.setLoggedClass(getClass());
+    }
+
+    return logger;
+  }
+}
@@ -0,0 +1,149 @@
+/* ********************************************************************
+    Licensed to Jasig under one or more contributor license
+    agreements. See the NOTICE file distributed with this work
+    for additional information regarding copyright ownership.
+    Jasig licenses this file to you under the Apache License,
+    Version 2.0 (the "License"); you may not use this file
+    except in compliance with the License. You may obtain a
+    copy of the License at:
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on
+    an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied. See the License for the
+    specific language governing permissions and limitations
+    under the License.
+*/
+package org.bedework.synch;
+
+import org.bedework.synch.shared.Stat;
+import org.bedework.synch.shared.StatLong;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/** Decrypted credentials keyed on their encrypted form. Decryption
+ * uses the private key so is too slow to do for every request.
+ *
+ * <p>Values are plain Strings - the decrypter returns them and callers
+ * need them - so they stay in memory until collected like any other
+ * decrypted credential. The least recently used entry is evicted when
+ * the cache is full. A changed credential has a new encrypted form so
+ * is never served a stale value.
+ *
+ * @author Mike Douglass
+ */
+class CredentialCache {
+  private record Entry(String val,
+                       long expires) {
+  }
+
+  private final long ttlMillis;
+
+  private final int maxEntries;
+
+  private final LinkedHashMap<String, Entry> entries =
+          new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(
+                    final Map.Entry<String, Entry> eldest) {
+              return size() > maxEntries;
+            }
+          };
+
+  private final StatLong hitsCt =
+          new StatLong("credential cache hits");
+
+  private final StatLong missesCt =
+          new StatLong("credential cache misses");
+
+  /**
+   * @param ttlMillis how long entries are kept
+   * @param maxEntries most entries held
+   */
+  CredentialCache(final long ttlMillis,
+                  final int maxEntries) {
+    this.ttlMillis = ttlMillis;
+    this.maxEntries = maxEntries;
+  }
+
+  /**
+   * @param encrypted the encrypted value
+   * @param decrypter called on a miss
+   * @return decrypted value
+   */
+  String get(final String encrypted,
+             final Function<String, String> decrypter) {
+    final long now = System.currentTimeMillis();
+
+    synchronized (entries) {
+      final Entry e = entries.get(encrypted);
+
+      if (e != null) {
+        if (e.expires() > now) {
+          hitsCt.inc();
+          return e.val();
+        }
+
+        entries.remove(encrypted);
+      }
+    }
+
+    /* Decrypt outside the lock - concurrent misses on the same value
+       just do the work twice.
+     */
+    missesCt.inc();
+    final String val = decrypter.apply(encrypted);
+
+    if (val == null) {
+      return null;
+    }
+
+    synchronized (entries) {
+      entries.put(encrypted, new Entry(val, now + ttlMillis));
+    }
+
+    return val;
+  }
+
+  /**
+   * @param encrypted value to forget - may be null
+   */
+  void remove(final String encrypted) {
+    if (encrypted == null) {
+      return;
+    }
+
+    synchronized (entries) {
+      entries.remove(encrypted);
+    }
+  }
+
+  /** Remove all entries
+   */
+  void clear() {
+    synchronized (entries) {
+      entries.clear();
+    }
+  }
+
+  /**
+   * @return stats for the cache
+   */
+  List<Stat> getStats() {
+    final List<Stat> stats = new ArrayList<>();
+
+    synchronized (entries) {
+      stats.add(new Stat("credential cache size", entries.size()));
+    }
+    stats.add(hitsCt);
+    stats.add(missesCt);
+
+    return stats;
+  }
+}
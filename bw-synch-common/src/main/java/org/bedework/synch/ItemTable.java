@@ -0,0 +1,196 @@
+/* ********************************************************************
+    Licensed to Jasig under one or more contributor license
+    agreements. See the NOTICE file distributed with this work
+    for additional information regarding copyright ownership.
+    Jasig licenses this file to you under the Apache License,
+    Version 2.0 (the "License"); you may not use this file
+    except in compliance with the License. You may obtain a
+    copy of the License at:
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on
+    an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied. See the License for the
+    specific language governing permissions and limitations
+    under the License.
+*/
+package org.bedework.synch;
+
+import org.bedework.synch.shared.cnctrs.ConnectorInstance.ItemInfo;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/** Compact table of the items at one end of a resynch.
+ *
+ * <p>Entries are held in parallel arrays indexed by position with an
+ * open addressing hash index on the uid. The seen flags are a bitset
+ * so the connector's ItemInfo objects are not modified and need not
+ * be retained.
+ *
+ * <p>Not thread safe - each resynch builds its own.
+ *
+ * @author Mike Douglass
+ */
+class ItemTable {
+  private String[] uids;
+
+  private long[] lastMods;
+
+  private int size;
+
+  /* Slots hold position + 1 - 0 is empty */
+  private int[] index;
+
+  private final BitSet seen;
+
+  /**
+   * @param expected number of items expected
+   */
+  ItemTable(final int expected) {
+    final int cap = Math.max(expected, 16);
+
+    uids = new String[cap];
+    lastMods = new long[cap];
+    index = new int[tableSize(cap)];
+    seen = new BitSet(cap);
+  }
+
+  /** Add an item. A later entry for the same uid replaces the earlier
+   * one.
+   *
+   * @param ii item info from the connector
+   */
+  void add(final ItemInfo ii) {
+    final int pos = find(ii.uid);
+
+    if (pos >= 0) {
+      lastMods[pos] = ii.lastModified;
+      return;
+    }
+
+    if (size == uids.length) {
+      grow();
+    }
+
+    uids[size] = ii.uid;
+    lastMods[size] = ii.lastModified;
+    size++;
+
+    if ((size * 2) > index.length) {
+      rehash(index.length * 2);
+    } else {
+      insert(size - 1);
+    }
+  }
+
+  /**
+   * @return number of items
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * @param uid of item
+   * @return position or -1 if not present
+   */
+  int find(final String uid) {
+    final int mask = index.length - 1;
+    int slot = hash(uid) & mask;
+
+    while (true) {
+      final int p = index[slot];
+
+      if (p == 0) {
+        return -1;
+      }
+
+      if (uids[p - 1].equals(uid)) {
+        return p - 1;
+      }
+
+      slot = (slot + 1) & mask;
+    }
+  }
+
+  /**
+   * @param pos of item
+   * @return uid
+   */
+  String uid(final int pos) {
+    return uids[pos];
+  }
+
+  /**
+   * @param pos of item
+   * @return lastmod as UTC millis or ItemInfo.noLastmod
+   */
+  long lastModified(final int pos) {
+    return lastMods[pos];
+  }
+
+  /**
+   * @param pos of item to mark as seen
+   */
+  void setSeen(final int pos) {
+    seen.set(pos);
+  }
+
+  /**
+   * @param pos of item
+   * @return true if marked as seen
+   */
+  boolean seen(final int pos) {
+    return seen.get(pos);
+  }
+
+  /** Only called for the items which need work.
+   *
+   * @param pos of item
+   * @return a new ItemInfo for the item
+   */
+  ItemInfo getInfo(final int pos) {
+    return new ItemInfo(uids[pos], lastMods[pos], null);
+  }
+
+  private void grow() {
+    final int cap = uids.length + (uids.length >> 1);
+
+    uids = Arrays.copyOf(uids, cap);
+    lastMods = Arrays.copyOf(lastMods, cap);
+  }
+
+  private void rehash(final int newSize) {
+    index = new int[newSize];
+
+    for (int i = 0; i < size; i++) {
+      insert(i);
+    }
+  }
+
+  private void insert(final int pos) {
+    final int mask = index.length - 1;
+    int slot = hash(uids[pos]) & mask;
+
+    while (index[slot] != 0) {
+      slot = (slot + 1) & mask;
+    }
+
+    index[slot] = pos + 1;
+  }
+
+  /* Spread the bits as uids often differ only at the end */
+  private static int hash(final String uid) {
+    final int h = uid.hashCode();
+
+    return h ^ (h >>> 16);
+  }
+
+  /* Power of 2 at least twice the capacity */
+  private static int tableSize(final int cap) {
+    return Integer.highestOneBit(cap * 2 - 1) << 1;
+  }
+}
@@ -104,6 +104,53 @@ public class SubscriptionInfoImpl
     return Boolean.parseBoolean(getProperty(propnameDeleteSuppressed));
   }
 
+  /** Start of the synch window - int
+   *
+   * @param val days before now - 0 for no limit
+   */
+  public void setWindowPastDays(final int val) {
+    setProperty(propnameWindowPast, String.valueOf(val));
+  }
+
+  /** Start of the synch window - int
+   *
+   * @return days before now - 0 for no limit
+   */
+  public int getWindowPastDays() {
+    return getIntProperty(propnameWindowPast);
+  }
+
+  /** End of the synch window - int
+   *
+   * @param val days after now - 0 for no limit
+   */
+  public void setWindowFutureDays(final int val) {
+    setProperty(propnameWindowFuture, String.valueOf(val));
+  }
+
+  /** End of the synch window - int
+   *
+   * @return days after now - 0 for no limit
+   */
+  public int getWindowFutureDays() {
+    return getIntProperty(propnameWindowFuture);
+  }
+
+  /* Bad or missing values mean no limit */
+  private int getIntProperty(final String name) {
+    final String val = getProperty(name);
+
+    if (val == null) {
+      return 0;
+    }
+
+    try {
+      return Integer.parseInt(val.trim());
+    } catch (final NumberFormatException nfe) {
+      return 0;
+    }
+  }
+
   /* ====================================================================
    *                   Object methods
    * ==================================================================== */
@@ -18,10 +18,19 @@
 */
 package org.bedework.synch;
 
+import org.bedework.synch.ClusterMembership.Ring;
 import org.bedework.synch.conf.SynchConfig;
 import org.bedework.synch.db.SynchDb;
+import org.bedework.synch.shared.BaseSubscriptionInfo;
+import org.bedework.synch.shared.ItemStamp;
+import org.bedework.synch.shared.Metrics;
+import org.bedework.synch.shared.Metrics.Histogram;
 import org.bedework.synch.shared.Notification;
 import org.bedework.synch.shared.Notification.NotificationItem;
+import org.bedework.synch.shared.Notification.NotificationItem.ActionType;
+import org.bedework.synch.shared.PendingChange;
+import org.bedework.synch.shared.ResynchTimings;
+import org.bedework.synch.shared.ResynchTimings.Phase;
 import org.bedework.synch.shared.Stat;
 import org.bedework.synch.shared.StatLong;
 import org.bedework.synch.shared.Subscription;
@@ -31,6 +40,7 @@ import org.bedework.synch.shared.cnctrs.Connector.NotificationBatch;
 import org.bedework.synch.shared.cnctrs.ConnectorInstance;
 import org.bedework.synch.shared.conf.ConnectorConfig;
 import org.bedework.synch.shared.exception.SynchException;
+import org.bedework.synch.shared.jfr.NotificationEvent;
 import org.bedework.synch.shared.service.SynchConnConf;
 import org.bedework.synch.wsmessages.SynchEndType;
 import org.bedework.util.calendar.XcalUtil.TzGetter;
@@ -49,13 +59,22 @@ import org.oasis_open.docs.ws_calendar.ns.soap.StatusType;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jakarta.servlet.http.HttpServletResponse;
 
 /** Synch processor.
  * <p>The synch processor manages subscriptions made by a subscriber to a target.
@@ -127,11 +146,14 @@ public class SynchEngineImpl
 
   private transient PwEncryptionIntf pwEncrypt;
 
+  /* Null if credentials are decrypted on every use */
+  private CredentialCache credentialCache;
+
   /* Map of currently active notification subscriptions. These are subscriptions
    * for which we get change messages from the remote system(s).
    */
   private final Map<String, Subscription> activeSubs =
-      new HashMap<>();
+      new ConcurrentHashMap<>();
 
   private boolean starting;
 
@@ -153,24 +175,47 @@ public class SynchEngineImpl
 
   private SynchTimer synchTimer;
 
-  private BlockingQueue<Notification<NotificationItem>> notificationInQueue;
+  private ChangeCoalescer changeCoalescer;
 
-  /* Where we keep subscriptions that come in while we are starting */
-  private List<Subscription> subsList;
+  private BlockingQueue<Notification<NotificationItem>> notificationInQueue;
 
-  private SynchDb db;
+  /* SynchDb is not thread safe. Callbacks, synchlings and the
+   * timer all use the engine's db so each thread has its own.
+   */
+  private final ThreadLocal<SynchDb> threadDb =
+          ThreadLocal.withInitial(() -> new SynchDb(getConfig()));
 
   private final Map<String, Connector<?, ?, ?>> connectorMap =
           new HashMap<>();
 
   /* Some counts */
 
+  private final Metrics metrics = new Metrics();
+
+  private final Histogram notificationTimes =
+          metrics.histogram("notification millis");
+
+  private final Histogram resynchTimes =
+          metrics.histogram("resynch millis");
+
+  /* Slowest resynch for each of the slowest subscriptions - slowest
+   * first. Updates are synchronized on the list.
+   */
+  private final List<ResynchTimings> slowest = new ArrayList<>();
+
+  private static final int slowestCount = 20;
+
+  private final AtomicLong resynchCt = new AtomicLong();
+
   private final StatLong notificationsCt =
           new StatLong("notifications");
 
   private final StatLong notificationsAddWt =
           new StatLong("notifications add wait");
 
+  private final StatLong otherNodeCt =
+          new StatLong("notifications for other nodes");
+
   /** This process handles startup notifications and (un)subscriptions.
    *
    */
@@ -209,6 +254,9 @@ public class SynchEngineImpl
           notificationsCt.inc();
           Synchling sl = null;
 
+          final NotificationEvent ev = new NotificationEvent();
+          ev.begin();
+
           try {
             /* Get a synchling from the pool */
             do {
@@ -220,7 +268,19 @@ public class SynchEngineImpl
             } while (sl == null);
 
             /* The synchling needs to be running its own thread. */
+            final long start = System.currentTimeMillis();
             final StatusType st = handleNotification(sl, note);
+            notificationTimes.record(System.currentTimeMillis() - start);
+
+            if (ev.shouldCommit()) {
+              ev.subscriptionId = note.getSubscriptionId();
+              if (!note.getNotifications().isEmpty()) {
+                ev.action = String.valueOf(
+                        note.getNotifications().get(0).getAction());
+              }
+              ev.queued = notificationInQueue.size();
+              ev.commit();
+            }
 
             if (st == StatusType.WARNING) {
               /* Back on the queue - these need to be flagged so we don't get an
@@ -263,13 +323,106 @@ public class SynchEngineImpl
 
   private static NotificationInThread notifyInHandler;
 
+  /* Default number of subscriptions loaded per page at startup */
+  private static final int defaultStartupPageSize = 500;
+
+  private static final int defaultChangeCoalesceWindow = 2000;
+
+  private static final int defaultMaxPendingChanges = 1000;
+
+  private static final int defaultCheckpointThreshold = 1000;
+
+  private static final int defaultCredentialCacheSeconds = 300;
+
+  /* Most credentials held decrypted */
+  private static final int credentialCacheSize = 1000;
+
+  /** This process loads and schedules the remaining pages of
+   * subscriptions after the first has been scheduled and the engine
+   * is running. It also schedules the subscriptions this node takes
+   * over when the cluster members change.
+   *
+   * <p>Only one runs at a time - see startLoader.
+   */
+  private class StartupLoaderThread extends Thread {
+    private String lastId;
+
+    private final Ring previous;
+
+    /**
+     * @param lastId id of the last subscription already scheduled
+     * @param previous ring before a change of cluster members - only
+     *                 subscriptions we did not own are scheduled.
+     *                 Null at startup.
+     */
+    StartupLoaderThread(final String lastId,
+                        final Ring previous) {
+      super("SynchStartupLoader");
+      this.lastId = lastId;
+      this.previous = previous;
+    }
+
+    @Override
+    public void run() {
+      /* Our own db object - the engine's is used by other threads */
+      final SynchDb loaderDb = new SynchDb(getConfig());
+
+      try {
+        do {
+          lastId = schedulePage(loaderDb, lastId, previous);
+        } while ((lastId != null) && !stopping && !isInterrupted());
+
+        if (isInterrupted()) {
+          if (debug()) {
+            debug("Load of subscriptions replaced after " + lastId);
+          }
+          return;
+        }
+
+        info("Load of subscriptions complete");
+      } catch (final Throwable t) {
+        if (isInterrupted()) {
+          if (debug()) {
+            debug("Load of subscriptions replaced after " + lastId);
+          }
+          return;
+        }
+
+        error("Load of subscriptions failed after " +
+                      lastId);
+        error(t);
+      }
+    }
+  }
+
+  /* Guarded by loaderLock */
+  private StartupLoaderThread startupLoader;
+
+  private final Object loaderLock = new Object();
+
+  /* Makes checking and scheduling a subscription atomic */
+  private final Object scheduleLock = new Object();
+
+  /* Null unless we are one node of a cluster */
+  private ClusterMembership cluster;
+
+  /* Highest database id of the subscriptions we have looked at. Newer
+   * subscriptions may have been added by other nodes.
+   */
+  private final AtomicLong maxSubId = new AtomicLong(-1);
+
+  /* Runs batches of notifications arriving via callbacks so the
+   * web tier need not hold a container thread while they are processed.
+   */
+  private ThreadPoolExecutor callbackExecutor;
+
+  /* How many batches may wait for a callback thread */
+  private static final int callbackQueueSize = 100;
+
   /** Constructor
    *
    */
   private SynchEngineImpl() {
-    System.setProperty(
-            "com.sun.xml.ws.transport.http.client.HttpTransportPipe.dump",
-            String.valueOf(debug()));
     System.setProperty(
             "net.fortuna.ical4j.timezone.cache.impl",
             "net.fortuna.ical4j.util.MapTimeZoneCache");
@@ -304,6 +457,10 @@ public class SynchEngineImpl
 
   @Override
   public void handleNotification(final Notification<NotificationItem> note) {
+    if (ownedElsewhere(note)) {
+      return;
+    }
+
     try {
       while (true) {
         if (stopping) {
@@ -318,6 +475,24 @@ public class SynchEngineImpl
     }
   }
 
+  @Override
+  public void queueItemChange(final String subscriptionId,
+                              final SynchEndType end,
+                              final String uid,
+                              final NotificationItem.ActionType action) {
+    if (changeCoalescer == null) {
+      throw new SynchException("Synch engine not started");
+    }
+
+    if ((cluster != null) && !cluster.owns(subscriptionId)) {
+      /* The owner's next resynch picks the change up */
+      otherNodeCt.inc();
+      return;
+    }
+
+    changeCoalescer.add(subscriptionId, end, uid, action);
+  }
+
   @Override
   public void setConnectors(final Subscription sub) {
     String connectorId = sub.getEndAConnectorInfo().getConnectorId();
@@ -347,6 +522,12 @@ public class SynchEngineImpl
       debug("reschedule now for subscription id " + id);
     }
 
+    if ((cluster != null) && !cluster.owns(id)) {
+      throw new SynchException("Subscription " + id +
+                                       " is handled by cluster node " +
+                                       cluster.getRing().owner(id));
+    }
+
     final Subscription sub = getSubscription(id);
 
     if (sub == null) {
@@ -369,6 +550,15 @@ public class SynchEngineImpl
       debug("reschedule subscription " + sub);
     }
 
+    if ((cluster != null) &&
+            !cluster.owns(sub.getSubscriptionId())) {
+      /* The owning node schedules it - a new one when it next looks
+         for new subscriptions.
+       */
+      activeSubs.remove(sub.getSubscriptionId());
+      return;
+    }
+
     if (sub.polling()) {
       Date when = null;
       try {
@@ -380,61 +570,75 @@ public class SynchEngineImpl
       return;
     }
 
-    // XXX start up the add to active subs
-
+    /* Not polled - changes arrive as item change notifications and are
+       applied via the change coalescer.
+     */
     activeSubs.put(sub.getSubscriptionId(), sub);
   }
 
   @Override
   public ConnectorInstance<?> getConnectorInstance(final Subscription sub,
                                                    final SynchEndType end) {
-    ConnectorInstance<?> cinst;
+    /* Instances are not held by the subscription - the connector
+       keeps them and may discard idle ones, recreating them here on
+       demand.
+     */
     final Connector<?, ?, ?> conn;
 
     if (end == SynchEndType.A) {
-      cinst = sub.getEndAConnInst();
       conn = sub.getEndAConn();
     } else {
-      cinst = sub.getEndBConnInst();
       conn = sub.getEndBConn();
     }
 
-    if (cinst != null) {
-      return cinst;
-    }
-
     if (conn == null) {
       throw new SynchException("No connector for " + sub + "(" + end + ")");
     }
 
-    cinst = conn.getConnectorInstance(sub, end);
+    final ConnectorInstance<?> cinst = conn.getConnectorInstance(sub, end);
     if (cinst == null) {
       throw new SynchException("No connector instance for " + sub +
                                        "(" + end + ")");
     }
 
-    if (end == SynchEndType.A) {
-      sub.setEndAConnInst(cinst);
-    } else {
-      sub.setEndBConnInst(cinst);
-    }
-
     return cinst;
   }
 
   @Override
   public void addSubscription(final Subscription sub) {
+    final SynchDb db = threadDb.get();
+
     db.add(sub);
     sub.resetChanged();
   }
 
   @Override
   public void deleteSubscription(final Subscription sub) {
+    final SynchDb db = threadDb.get();
+
     db.delete(sub);
+
+    forgetCredentials(sub);
+
+    removePendingChanges(getPendingChanges(sub.getSubscriptionId()));
+    removeItemStamps(getItemStamps(sub.getSubscriptionId()));
+
+    if (sub.getEndAConn() != null) {
+      sub.getEndAConn().removeConnectorInstance(sub, SynchEndType.A);
+    }
+
+    if (sub.getEndBConn() != null) {
+      sub.getEndBConn().removeConnectorInstance(sub, SynchEndType.B);
+    }
   }
 
   @Override
   public Subscription updateSubscription(final Subscription sub) {
+    /* Credentials are not forgotten here - this is called after every
+       resynch. A changed password has a new encrypted value so gets
+       its own entry and the old one expires.
+     */
+    final SynchDb db = threadDb.get();
     final boolean opened = db.open();
 
     try {
@@ -451,6 +655,7 @@ public class SynchEngineImpl
 
   @Override
   public Subscription getSubscription(final String id) {
+    final SynchDb db = threadDb.get();
     final boolean opened = db.open();
 
     try {
@@ -465,6 +670,7 @@ public class SynchEngineImpl
 
   @Override
   public Subscription find(final Subscription sub) {
+    final SynchDb db = threadDb.get();
     final boolean opened = db.open();
 
     try {
@@ -477,6 +683,154 @@ public class SynchEngineImpl
     }
   }
 
+  @Override
+  public Metrics getMetrics() {
+    return metrics;
+  }
+
+  @Override
+  public void resynchDone(final ResynchTimings timings) {
+    resynchTimes.record(timings.getMillis());
+
+    for (final Phase p: Phase.values()) {
+      if (!p.isConnector()) {
+        recordPhase(timings, SynchEndType.NONE, p,
+                    "resynch " + p.name() + " millis");
+        continue;
+      }
+
+      for (final SynchEndType end:
+              new SynchEndType[]{SynchEndType.A, SynchEndType.B}) {
+        recordPhase(timings, end, p,
+                    "resynch " + timings.getConnectorId(end) +
+                            " " + p.name() + " millis");
+      }
+    }
+
+    addSlowest(timings);
+
+    final int sample = getConfig().getResynchTraceSample();
+    if ((sample > 0) && ((resynchCt.incrementAndGet() % sample) == 0)) {
+      info("Resynch trace: " + timings);
+    }
+  }
+
+  @Override
+  public List<String> getSlowestResynchs() {
+    final List<String> res = new ArrayList<>();
+
+    synchronized (slowest) {
+      for (final ResynchTimings rt: slowest) {
+        res.add(rt.toString());
+      }
+    }
+
+    return res;
+  }
+
+  @Override
+  public int getCheckpointThreshold() {
+    final int threshold = getConfig().getCheckpointThreshold();
+
+    if (threshold == 0) {
+      return defaultCheckpointThreshold;
+    }
+
+    return threshold;
+  }
+
+  /* The change log and item stamps use their own db object for each
+   * call - the engine's is shared with other threads.
+   */
+
+  @Override
+  public List<PendingChange> getPendingChanges(final String subscriptionId) {
+    final SynchDb logDb = new SynchDb(getConfig());
+
+    logDb.open();
+    try {
+      return logDb.getPendingChanges(subscriptionId);
+    } finally {
+      logDb.close();
+    }
+  }
+
+  @Override
+  public void addPendingChanges(final List<PendingChange> changes) {
+    if (changes.isEmpty()) {
+      return;
+    }
+
+    final SynchDb logDb = new SynchDb(getConfig());
+
+    logDb.open();
+    try {
+      logDb.addPendingChanges(changes);
+    } finally {
+      logDb.close();
+    }
+  }
+
+  @Override
+  public void removePendingChanges(final List<PendingChange> changes) {
+    if (changes.isEmpty()) {
+      return;
+    }
+
+    final SynchDb logDb = new SynchDb(getConfig());
+
+    logDb.open();
+    try {
+      logDb.deletePendingChanges(changes);
+    } finally {
+      logDb.close();
+    }
+  }
+
+  @Override
+  public List<ItemStamp> getItemStamps(final String subscriptionId) {
+    final SynchDb stampDb = new SynchDb(getConfig());
+
+    stampDb.open();
+    try {
+      return stampDb.getItemStamps(subscriptionId);
+    } finally {
+      stampDb.close();
+    }
+  }
+
+  @Override
+  public void saveItemStamps(final List<ItemStamp> stamps) {
+    if (stamps.isEmpty()) {
+      return;
+    }
+
+    final SynchDb stampDb = new SynchDb(getConfig());
+
+    stampDb.open();
+    try {
+      stampDb.saveItemStamps(stamps);
+    } finally {
+      stampDb.close();
+    }
+  }
+
+  @Override
+  public void removeItemStamps(final List<ItemStamp> stamps) {
+    if (stamps.isEmpty()) {
+      return;
+    }
+
+    final SynchDb stampDb = new SynchDb(getConfig());
+
+    stampDb.open();
+    try {
+      stampDb.deleteItemStamps(stamps);
+    } finally {
+      stampDb.close();
+    }
+  }
+
   @Override
   public Connector getConnector(final String id) {
     return connectorMap.get(id);
@@ -490,8 +844,10 @@ public class SynchEngineImpl
   @Override
   public void handleNotifications(
           final NotificationBatch<Notification> notes) {
+    final SynchDb db = threadDb.get();
+
     for (final Notification note: notes.getNotifications()) {
-      db.open();
+      final boolean opened = db.open();
       Synchling sl = null;
 
       try {
@@ -501,7 +857,9 @@ public class SynchEngineImpl
           handleNotification(sl, note);
         }
       } finally {
-        db.close();
+        if (opened) {
+          db.close();
+        }
         if (sl != null) {
           synchlingPool.add(sl);
         }
@@ -509,6 +867,19 @@ public class SynchEngineImpl
     }
   }
 
+  @Override
+  public CompletableFuture<Void> queueNotifications(
+          final NotificationBatch<Notification> notes) {
+    try {
+      return CompletableFuture.runAsync(
+              () -> handleNotifications(notes),
+              callbackExecutor);
+    } catch (final RejectedExecutionException ree) {
+      throw new SynchException(HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+                               "Too many callbacks waiting");
+    }
+  }
+
   @Override
   public TzGetter getTzGetter() {
     return tzgetter;
@@ -523,15 +894,11 @@ public class SynchEngineImpl
       }
 
       synchronized (this) {
-        subsList = null;
-
         starting = true;
       }
 
       final var cfg = getConfig();
 
-      db = new SynchDb(cfg);
-
       if (cfg.getTimezonesURI() == null) {
         throw new SynchException(
                 "Timezones URI must be set in configuration");
@@ -549,6 +916,24 @@ public class SynchEngineImpl
 
       notificationInQueue = new ArrayBlockingQueue<>(100);
 
+      metrics.gauge("notifications queued",
+                    () -> notificationInQueue.size());
+      metrics.gauge("active subscriptions", activeSubs::size);
+
+      final AtomicInteger callbackThreadCt = new AtomicInteger();
+      callbackExecutor = new ThreadPoolExecutor(
+              cfg.getSynchlingPoolSize(),
+              cfg.getSynchlingPoolSize(),
+              0L, TimeUnit.MILLISECONDS,
+              new ArrayBlockingQueue<>(callbackQueueSize),
+              r -> {
+                final Thread t = new Thread(
+                        r, "SynchCallback-" +
+                                callbackThreadCt.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+              });
+
       info("**************************************************");
       info("Starting synch");
       info("      callback URI: " + cfg.getCallbackURI());
@@ -592,51 +977,55 @@ public class SynchEngineImpl
         }
       }
 
+      int credSecs = cfg.getCredentialCacheSeconds();
+      if (credSecs == 0) {
+        credSecs = defaultCredentialCacheSeconds;
+      }
+
+      if (credSecs > 0) {
+        credentialCache = new CredentialCache(credSecs * 1000L,
+                                              credentialCacheSize);
+      }
+
       synchTimer = new SynchTimer(this);
 
-      /* Get the list of subscriptions from our database and process them.
-       * While starting, new subscribe requests get added to the list.
-       */
+      int window = cfg.getChangeCoalesceWindow();
+      if (window <= 0) {
+        window = defaultChangeCoalesceWindow;
+      }
+      int maxPending = cfg.getMaxPendingChanges();
+      if (maxPending <= 0) {
+        maxPending = defaultMaxPendingChanges;
+      }
+      changeCoalescer = new ChangeCoalescer(this, cfg, window,
+                                            maxPending);
+      changeCoalescer.start();
 
       notifyInHandler = new NotificationInThread();
       notifyInHandler.start();
 
-      try {
-        db.open();
-        List<Subscription> startList = db.getAll();
-        db.close();
-
-        startup:
-        while (starting) {
-          if (debug()) {
-            debug("startList has " + startList.size() + " subscriptions");
-          }
-
-          for (final Subscription sub: startList) {
-            setConnectors(sub);
+      if (cfg.getClusterLeaseSeconds() > 0) {
+        cluster = new ClusterMembership(cfg,
+                                        cfg.getClusterLeaseSeconds(),
+                                        cfg.getClusterClockSkewSeconds(),
+                                        this::clusterRenewed);
+        cluster.start();
+      }
 
-            reschedule(sub, false);
-          }
+      /* Load the first page of subscriptions from our database and
+       * schedule them. We are running once that is done - the remaining
+       * pages are loaded and scheduled in the background so that a large
+       * table neither delays startup nor sits in one session.
+       */
+      final String lastId = schedulePage(threadDb.get(), null, null);
 
-          synchronized (this) {
-            if (subsList == null) {
-              // Nothing came in as we started
-              starting = false;
-              if (stopping) {
-                break startup;
-              }
-              running = true;
-              break;
-            }
+      synchronized (this) {
+        starting = false;
+        running = !stopping;
+      }
 
-            startList = subsList;
-            subsList = null;
-          }
-        }
-      } finally {
-        if ((db != null) && db.isOpen()) {
-          db.close();
-        }
+      if (running && (lastId != null)) {
+        startLoader(lastId, null);
       }
 
       info("**************************************************");
@@ -661,8 +1050,19 @@ public class SynchEngineImpl
 
     stats.addAll(synchlingPool.getStats());
     stats.addAll(synchTimer.getStats());
+    stats.addAll(changeCoalescer.getStats());
     stats.add(notificationsCt);
     stats.add(notificationsAddWt);
+    stats.add(otherNodeCt);
+    stats.addAll(metrics.getStats());
+
+    if (cluster != null) {
+      stats.addAll(cluster.getStats());
+    }
+
+    if (credentialCache != null) {
+      stats.addAll(credentialCache.getStats());
+    }
 
     return stats;
   }
@@ -694,6 +1094,24 @@ public class SynchEngineImpl
 
     info("Connectors stopped");
 
+    if (changeCoalescer != null) {
+      changeCoalescer.stop();
+    }
+
+    if (cluster != null) {
+      cluster.stop();
+    }
+
+    stopLoader();
+
+    if (credentialCache != null) {
+      credentialCache.clear();
+    }
+
+    if (callbackExecutor != null) {
+      callbackExecutor.shutdown();
+    }
+
     if (synchlingPool != null) {
       synchlingPool.stop();
     }
@@ -755,7 +1173,8 @@ public class SynchEngineImpl
     }
   }
 
-  /**
+  /** Decrypted values are cached unless configured otherwise.
+   *
    * @param val possibly null password
    * @return decrypted string
    */
@@ -764,6 +1183,14 @@ public class SynchEngineImpl
       return null;
     }
 
+    if (credentialCache != null) {
+      return credentialCache.get(val, this::decryptNow);
+    }
+
+    return decryptNow(val);
+  }
+
+  private String decryptNow(final String val) {
     try {
       return getEncrypter().decrypt(val);
     } catch (final SynchException se) {
@@ -819,8 +1246,276 @@ public class SynchEngineImpl
     }
   }
 
+  /* Load one page of subscriptions in its own session and schedule
+   * those we own. Returns the id of the last subscription in the page
+   * or null if there are no more to load.
+   */
+  private String schedulePage(final SynchDb pageDb,
+                              final String lastId,
+                              final Ring previous) {
+    int pageSize = getConfig().getStartupPageSize();
+    if (pageSize <= 0) {
+      pageSize = defaultStartupPageSize;
+    }
+
+    final List<Subscription> page;
+
+    pageDb.open();
+    try {
+      page = pageDb.getPage(lastId, pageSize);
+    } finally {
+      pageDb.close();
+    }
+
+    if (debug()) {
+      debug("Startup page has " + page.size() + " subscriptions");
+    }
+
+    scheduleAll(page, previous);
+
+    if (stopping || (page.size() < pageSize)) {
+      return null;
+    }
+
+    return page.get(page.size() - 1).getSubscriptionId();
+  }
+
+  /* The subscription is going - so are its encrypted values */
+  private void forgetCredentials(final Subscription sub) {
+    if (credentialCache == null) {
+      return;
+    }
+
+    if (sub.getEndAConnectorInfo() != null) {
+      credentialCache.remove(
+              new BaseSubscriptionInfo(sub.getEndAConnectorInfo())
+                      .getPassword());
+    }
+
+    if (sub.getEndBConnectorInfo() != null) {
+      credentialCache.remove(
+              new BaseSubscriptionInfo(sub.getEndBConnectorInfo())
+                      .getPassword());
+    }
+  }
+
+  private void scheduleAll(final List<Subscription> subs,
+                           final Ring previous) {
+    for (final Subscription sub: subs) {
+      if (stopping) {
+        return;
+      }
+
+      maxSubId.accumulateAndGet(sub.getId(), Math::max);
+
+      final String id = sub.getSubscriptionId();
+
+      synchronized (scheduleLock) {
+        if (cluster != null) {
+          if (!cluster.owns(id) ||
+                  ((previous != null) && cluster.owns(previous, id)) ||
+                  synchTimer.isWaiting(id) ||
+                  activeSubs.containsKey(id)) {
+            continue;
+          }
+        }
+
+        try {
+          setConnectors(sub);
+
+          reschedule(sub, false);
+        } catch (final SynchException se) {
+          error("Unable to schedule subscription " +
+                        id + ": " + se.getMessage());
+        }
+      }
+    }
+  }
+
+  /* Start a loader, replacing any still running. A replaced loader
+   * may not have scheduled everything it was asked to so the new one
+   * starts from the beginning and only excludes what was owned before
+   * the earlier loader started.
+   */
+  private void startLoader(final String lastId,
+                           final Ring previous) {
+    synchronized (loaderLock) {
+      if (stopping) {
+        return;
+      }
+
+      String startId = lastId;
+      Ring prev = previous;
+      final StartupLoaderThread old = startupLoader;
+
+      if ((old != null) && old.isAlive()) {
+        old.interrupt();
+
+        try {
+          old.join();
+        } catch (final InterruptedException ie) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+
+        startId = null;
+        prev = old.previous;
+      }
+
+      startupLoader = new StartupLoaderThread(startId, prev);
+      startupLoader.start();
+    }
+  }
+
+  private void stopLoader() {
+    synchronized (loaderLock) {
+      if (startupLoader != null) {
+        startupLoader.interrupt();
+        startupLoader = null;
+      }
+    }
+  }
+
+  /* Called from the lease thread after each renewal. Picks up
+   * subscriptions added by any node since we last looked and, if the
+   * members changed, those we have taken over.
+   */
+  private void clusterRenewed(final Ring previous) {
+    if (stopping || !running) {
+      return;
+    }
+
+    int pageSize = getConfig().getStartupPageSize();
+    if (pageSize <= 0) {
+      pageSize = defaultStartupPageSize;
+    }
+
+    final SynchDb newerDb = new SynchDb(getConfig());
+
+    while (!stopping) {
+      final List<Subscription> newer;
+
+      newerDb.open();
+      try {
+        newer = newerDb.getNewer(maxSubId.get(), pageSize);
+      } finally {
+        newerDb.close();
+      }
+
+      scheduleAll(newer, null);
+
+      if (newer.size() < pageSize) {
+        break;
+      }
+    }
+
+    if (previous == null) {
+      return;
+    }
+
+    /* Anything we no longer own is dropped when its timer fires */
+    activeSubs.keySet().removeIf(id -> !cluster.owns(id));
+
+    startLoader(null, previous);
+  }
+
+  private void recordPhase(final ResynchTimings timings,
+                           final SynchEndType end,
+                           final Phase p,
+                           final String name) {
+    if (timings.getCalls(end, p) == 0) {
+      return;
+    }
+
+    metrics.histogram(name).record(timings.getMillis(end, p));
+  }
+
+  /* Keep the slowest resynch of each of the slowest subscriptions */
+  private void addSlowest(final ResynchTimings timings) {
+    final long millis = timings.getMillis();
+
+    synchronized (slowest) {
+      for (int i = 0; i < slowest.size(); i++) {
+        final ResynchTimings rt = slowest.get(i);
+
+        if (rt.getSubscriptionId().equals(timings.getSubscriptionId())) {
+          if (rt.getMillis() >= millis) {
+            return;
+          }
+
+          slowest.remove(i);
+          break;
+        }
+      }
+
+      if ((slowest.size() == slowestCount) &&
+              (slowest.get(slowestCount - 1).getMillis() >= millis)) {
+        return;
+      }
+
+      int pos = 0;
+      while ((pos < slowest.size()) &&
+              (slowest.get(pos).getMillis() >= millis)) {
+        pos++;
+      }
+
+      slowest.add(pos, timings);
+
+      if (slowest.size() > slowestCount) {
+        slowest.remove(slowestCount);
+      }
+    }
+  }
+
+  /* Actions only the owning node of a cluster carries out */
+  private static final Set<ActionType> ownerActions =
+          EnumSet.of(ActionType.FullSynch,
+                     ActionType.CopiedEvent,
+                     ActionType.CreatedEvent,
+                     ActionType.ModifiedEvent,
+                     ActionType.DeletedEvent,
+                     ActionType.MovedEvent,
+                     ActionType.Refresh);
+
+  /* True if this is one node of a cluster and the notification
+     changes items of a subscription another node owns. Only the owner
+     touches a subscription's items - a change dropped here is picked
+     up by the owner's next resynch. Subscribing, unsubscribing and
+     status requests only touch the database so any node handles them.
+   */
+  private boolean ownedElsewhere(final Notification<NotificationItem> note) {
+    if ((cluster == null) || cluster.owns(note.getSubscriptionId())) {
+      return false;
+    }
+
+    for (final NotificationItem ni: note.getNotifications()) {
+      if (ownerActions.contains(ni.getAction())) {
+        otherNodeCt.inc();
+        if (ni.getAction() == ActionType.Refresh) {
+          /* The caller is told it was not done here */
+          ni.getRefreshResponse().setStatus(StatusType.ERROR);
+        }
+        if (debug()) {
+          debug("Dropping " + ni.getAction() +
+                        " for subscription owned elsewhere: " +
+                        note.getSubscriptionId());
+        }
+        return true;
+      }
+    }
+
+    return false;
+  }
+
   private StatusType handleNotification(final Synchling sl,
                                         final Notification<NotificationItem> note) {
+    if (ownedElsewhere(note)) {
+      /* Ownership moved while it was queued or it came in on a
+         callback to this node.
+       */
+      return StatusType.OK;
+    }
+
     final StatusType st = sl.handleNotification(note);
 
     final Subscription sub = note.getSub();
@@ -142,6 +142,16 @@ public class SynchTimer implements Logged {
     timer.schedule(st, delay);
   }
 
+  /**
+   * @param subscriptionId of subscription
+   * @return true if it is scheduled and waiting
+   */
+  public boolean isWaiting(final String subscriptionId) {
+    synchronized (waiting) {
+      return waiting.containsKey(subscriptionId);
+    }
+  }
+
   /**
    * @return number waiting
    */
@@ -23,10 +23,16 @@ import org.bedework.synch.filters.Filters;
 import org.bedework.synch.shared.BaseSubscriptionInfo.CrudCts;
 import org.bedework.synch.shared.Notification;
 import org.bedework.synch.shared.Notification.NotificationItem;
+import org.bedework.synch.shared.Notification.NotificationItem.ActionType;
+import org.bedework.synch.shared.PendingChange;
+import org.bedework.synch.shared.ResynchTimings;
+import org.bedework.synch.shared.ResynchTimings.Phase;
 import org.bedework.synch.shared.Subscription;
 import org.bedework.synch.shared.SubscriptionConnectorInfo;
 import org.bedework.synch.shared.SynchEngine;
+import org.bedework.synch.shared.SynchWindow;
 import org.bedework.synch.shared.cnctrs.Connector;
+import org.bedework.synch.shared.cnctrs.Connector.Pin;
 import org.bedework.synch.shared.cnctrs.ConnectorInstance;
 import org.bedework.synch.shared.cnctrs.ConnectorInstance.ItemInfo;
 import org.bedework.synch.shared.cnctrs.ConnectorInstance.SynchItemsInfo;
@@ -59,10 +65,8 @@ import org.oasis_open.docs.ws_calendar.ns.soap.UpdateItemType;
 
 import java.math.BigInteger;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 
 import static java.lang.String.format;
 
@@ -129,33 +133,21 @@ public class Synchling implements Logged {
           continue;
         }
 
-        st = reSynch(note);
+        /* Fetched data is released when we are done */
+        try (final Pin pinA = pin(note.getSub(), SynchEndType.A, true);
+             final Pin pinB = pin(note.getSub(), SynchEndType.B, true)) {
+          st = reSynch(note);
+        }
         if (st != StatusType.OK) {
           return st;
         }
         continue;
 
       case CopiedEvent:
-        break;
-
       case CreatedEvent:
-        if (syncher.subscriptionsOnly()) {
-          if (debug()) {
-            debug("Skipping: subscriptions only");
-          }
-          continue;
-        }
-
-        st = addItem(note, ni);
-        if (st != StatusType.OK) {
-          return st;
-        }
-        continue;
-
-      case DeletedEvent:
-        break;
-
       case ModifiedEvent:
+      case DeletedEvent:
+      case MovedEvent:
         if (syncher.subscriptionsOnly()) {
           if (debug()) {
             debug("Skipping: subscriptions only");
@@ -163,18 +155,32 @@ public class Synchling implements Logged {
           continue;
         }
 
-        st = updateItem(note, ni);
+        /* A delete or move out leaves nothing at the notifying end.
+           Anything still there was recreated or moved back in.
+         */
+        try (final Pin pinA = pin(note.getSub(), SynchEndType.A, false);
+             final Pin pinB = pin(note.getSub(), SynchEndType.B, false)) {
+          st = syncItem(note, ni,
+                        (ni.getAction() == ActionType.DeletedEvent) ||
+                                (ni.getAction() == ActionType.MovedEvent));
+        }
         if (st != StatusType.OK) {
           return st;
         }
         continue;
 
-      case MovedEvent:
-        break;
       case NewMailEvent:
         break;
+
       case StatusEvent:
-        break;
+        /* Status changes at the far end don't change any items -
+           acknowledge them.
+         */
+        if (debug()) {
+          debug("Status event for " + note.getSubscriptionId() +
+                        " acknowledged");
+        }
+        continue;
 
       case NewSubscription:
         ni.getSubResponse().setStatus(subscribe(note, ni));
@@ -254,74 +260,114 @@ public class Synchling implements Logged {
     return StatusType.OK;
   }
 
-  private StatusType addItem(final Notification<?> note,
-                             final NotificationItem ni) {
-    final IcalendarType ical = ni.getIcal();
+  /* Bring the other end into line for a single item changed at the
+   * notifying end without a full resynch. The item goes through the
+   * same filters and differ as in reSynch.
+   *
+   * If the notification carries only the uid the item is fetched from
+   * the notifying end. If it is no longer there and deleteIfMissing is
+   * set it is deleted from the other end.
+   */
+  private StatusType syncItem(final Notification<?> note,
+                              final NotificationItem ni,
+                              final boolean deleteIfMissing) {
+    final Subscription sub = note.getSub();
+    final SynchDirectionType dir = sub.getDirectionEnum();
+    final SynchEndType fromEnd = note.getEnd();
 
-    if (ical == null) {
+    if (((dir == SynchDirectionType.A_TO_B) &&
+                 (fromEnd != SynchEndType.A)) ||
+            ((dir == SynchDirectionType.B_TO_A) &&
+                     (fromEnd != SynchEndType.B))) {
       if (debug()) {
-        debug("No item found");
+        debug("Change at end " + fromEnd + " not propagated for " +
+                      ni.getUid());
       }
 
-      return StatusType.ERROR;
+      return StatusType.OK;
     }
 
-    final AddItemResponseType air = getOtherCinst(note).addItem(ical);
-    if (debug()) {
-      debug("Add: status=" + air.getStatus() +
-            " msg=" + air.getMessage());
+    final ResynchInfo fromInfo =
+            new ResynchInfo(sub, fromEnd, syncher, false);
+    final ResynchInfo toInfo;
+    if (fromEnd == SynchEndType.A) {
+      toInfo = new ResynchInfo(sub, SynchEndType.B, syncher, false);
+    } else {
+      toInfo = new ResynchInfo(sub, SynchEndType.A, syncher, false);
     }
 
-    return air.getStatus();
-  }
-
-  private StatusType updateItem(final Notification<?> note,
-                                final NotificationItem ni) {
-    final IcalendarType ical = ni.getIcal();
+    IcalendarType ical = ni.getIcal();
 
     if (ical == null) {
-      if (debug()) {
-        debug("No item found");
+      final FetchItemResponseType fresp =
+              fromInfo.inst.fetchItem(ni.getUid());
+
+      if (fresp.getStatus() == StatusType.NOT_FOUND) {
+        if (deleteIfMissing) {
+          return deleteItem(ni.getUid(), toInfo);
+        }
+
+        // Gone again - a delete will follow
+        if (debug()) {
+          debug("Changed item " + ni.getUid() + " no longer present");
+        }
+
+        return StatusType.OK;
       }
 
-      return StatusType.ERROR;
+      if (fresp.getStatus() != StatusType.OK) {
+        return fresp.getStatus();
+      }
+
+      ical = fresp.getIcalendar();
     }
 
-    final ConnectorInstance<?> cinst = getOtherCinst(note);
+    IcalendarType filtered = Filters.doFilters(ical,
+                                               fromInfo.getInFilters());
 
-    final FetchItemResponseType fresp = cinst.fetchItem(ni.getUid());
-    if (debug()) {
-      debug("Update: status=" + fresp.getStatus() +
-            " msg=" + fresp.getMessage());
+    if (filtered != null) {
+      filtered = Filters.doFilters(filtered,
+                                   toInfo.getOutFilters());
     }
 
-    if (fresp.getStatus() != StatusType.OK) {
-      return fresp.getStatus();
+    if (filtered == null) {
+      if (debug()) {
+        debug("Filter removed everything for " + ni.getUid());
+      }
+
+      return StatusType.OK;
     }
 
-    final IcalendarType targetIcal = fresp.getIcalendar();
+    final FetchItemResponseType toFir = toInfo.inst.fetchItem(ni.getUid());
 
-    final Subscription sub = note.getSub();
+    if (toFir.getStatus() == StatusType.NOT_FOUND) {
+      final AddItemResponseType air = toInfo.inst.addItem(filtered);
+      if (debug()) {
+        debug("Add: status=" + air.getStatus() +
+              " msg=" + air.getMessage());
+      }
 
-    final ResynchInfo ainfo = new ResynchInfo(sub,
-                                              SynchEndType.A,
-                                              syncher);
-    final ResynchInfo binfo = new ResynchInfo(sub,
-                                              SynchEndType.B,
-                                              syncher);
-    final ResynchInfo toInfo;
-    final ResynchInfo fromInfo;
-    if (note.getEnd() == SynchEndType.A) {
-      toInfo = binfo;
-      fromInfo = ainfo;
-    } else {
-      toInfo = ainfo;
-      fromInfo = binfo;
+      if (air.getStatus() == StatusType.OK) {
+        toInfo.lastCts.created++;
+        toInfo.totalCts.created++;
+        toInfo.updateCts();
+      }
+
+      return air.getStatus();
+    }
+
+    if (toFir.getStatus() != StatusType.OK) {
+      return toFir.getStatus();
     }
 
-    final ComponentSelectionType cst = getDiffer(note,
-                                                 fromInfo,
-                                                 toInfo).diff(ical, targetIcal);
+    final IcalendarType toFiltered =
+            Filters.doFilters(toFir.getIcalendar(),
+                              toInfo.getInFilters());
+
+    final ComponentSelectionType cst =
+            getDiffer(note,
+                      fromInfo,
+                      toInfo).diff(filtered, toFiltered);
 
     if (cst == null) {
       if (debug()) {
@@ -333,28 +379,53 @@ public class Synchling implements Logged {
 
     final UpdateItemType ui = new UpdateItemType();
 
-    ui.setHref(fresp.getHref());
-    ui.setChangeToken(fresp.getChangeToken());
+    ui.setHref(toFir.getHref());
+    ui.setChangeToken(toFir.getChangeToken());
     ui.getSelect().add(cst);
 
-    final UpdateItemResponseType uir = cinst.updateItem(ui);
+    final UpdateItemResponseType uir = toInfo.inst.updateItem(ui);
     if (debug()) {
       debug("Update: status=" + uir.getStatus() +
             " msg=" + uir.getMessage());
     }
+
+    if (uir.getStatus() == StatusType.OK) {
+      toInfo.lastCts.updated++;
+      toInfo.totalCts.updated++;
+      toInfo.updateCts();
+    }
+
     return uir.getStatus();
   }
 
-  private ConnectorInstance<?> getOtherCinst(final Notification<?> note) {
-    final SynchEndType otherEnd;
-    if (note.getEnd() == SynchEndType.A) {
-      otherEnd = SynchEndType.B;
-    } else {
-      otherEnd = SynchEndType.A;
+  private StatusType deleteItem(final String uid,
+                                final ResynchInfo toInfo) {
+    if (toInfo.sub.getInfo().getDeletionsSuppressed()) {
+      if (debug()) {
+        debug("Deletions suppressed - not deleting " + uid);
+      }
+
+      return StatusType.OK;
+    }
+
+    final DeleteItemResponseType dir = toInfo.inst.deleteItem(uid);
+    if (debug()) {
+      debug("Delete: status=" + dir.getStatus() +
+            " msg=" + dir.getMessage());
+    }
+
+    if (dir.getStatus() == StatusType.NOT_FOUND) {
+      // Already gone
+      return StatusType.OK;
+    }
+
+    if (dir.getStatus() == StatusType.OK) {
+      toInfo.lastCts.deleted++;
+      toInfo.totalCts.deleted++;
+      toInfo.updateCts();
     }
 
-    return syncher.getConnectorInstance(note.getSub(),
-                                        otherEnd);
+    return dir.getStatus();
   }
 
   /* ==========================================================
@@ -513,7 +584,7 @@ public class Synchling implements Logged {
     return ci;
   }
 
-  private static class SynchInfo {
+  static class SynchInfo {
     /** */
     public ItemInfo itemInfo;
 
@@ -532,6 +603,12 @@ public class Synchling implements Logged {
     @SuppressWarnings("UnusedDeclaration")
     public boolean conflict;
 
+    /** change log entry if checkpointed */
+    public PendingChange logged;
+
+    /** true if this came from the log of an interrupted resynch */
+    public boolean resumed;
+
     /** Constructor
      *
      * @param itemInfo the item info
@@ -557,7 +634,11 @@ public class Synchling implements Logged {
     SynchEndType end;
     boolean trustLastmod;
     ConnectorInstance<?> inst;
-    Map<String, ItemInfo> items;
+    ItemTable items;
+    ResynchTimings timings;
+
+    /* Bounds the listing at both ends - null for no limit */
+    SynchWindow window;
     CrudCts lastCts;
     CrudCts totalCts;
 
@@ -571,6 +652,17 @@ public class Synchling implements Logged {
     ResynchInfo(final Subscription sub,
                 final SynchEndType end,
                 final SynchEngine syncher) {
+      this(sub, end, syncher, true);
+    }
+
+    /**
+     * @param newCycle true to start a new set of last counts, false
+     *                 to add to the current ones
+     */
+    ResynchInfo(final Subscription sub,
+                final SynchEndType end,
+                final SynchEngine syncher,
+                final boolean newCycle) {
       this.sub = sub;
       this.end = end;
       final Connector<?, ?, ?> c;
@@ -585,8 +677,12 @@ public class Synchling implements Logged {
       trustLastmod = c.getTrustLastmod();
       inst = syncher.getConnectorInstance(sub, end);
 
-      lastCts = new CrudCts();
-      inst.setLastCrudCts(lastCts);
+      if (newCycle || (inst.getLastCrudCts() == null)) {
+        lastCts = new CrudCts();
+        inst.setLastCrudCts(lastCts);
+      } else {
+        lastCts = inst.getLastCrudCts();
+      }
       totalCts = inst.getTotalCrudCts();
     }
 
@@ -612,8 +708,33 @@ public class Synchling implements Logged {
     }
   }
 
+  /* Stop the connector dropping or releasing the instance while we
+   * use it. Null if there is no connector for the end.
+   */
+  private Pin pin(final Subscription sub,
+                  final SynchEndType end,
+                  final boolean release) {
+    final Connector<?, ?, ?> conn;
+
+    if (end == SynchEndType.A) {
+      conn = sub.getEndAConn();
+    } else {
+      conn = sub.getEndBConn();
+    }
+
+    if (conn == null) {
+      return null;
+    }
+
+    return conn.pinConnectorInstance(sub, end, release);
+  }
+
   private StatusType reSynch(final Notification<?> note) {
     final Subscription sub = note.getSub();
+    final ResynchTimings timings =
+            new ResynchTimings(sub.getSubscriptionId(),
+                               sub.getEndAConn().getId(),
+                               sub.getEndBConn().getId());
 
     try {
       /* The action here depends on which way we are synching.
@@ -650,72 +771,40 @@ public class Synchling implements Logged {
       final boolean bothWays =
               dir == SynchDirectionType.BOTH_WAYS;
 
-      final ResynchInfo ainfo = new ResynchInfo(sub,
-                                                SynchEndType.A,
-                                                syncher);
-      final ResynchInfo binfo = new ResynchInfo(sub,
-                                                SynchEndType.B,
-                                                syncher);
+      final ResynchInfo ainfo =
+              new ResynchInfo(sub, SynchEndType.A, syncher);
+      final ResynchInfo binfo =
+              new ResynchInfo(sub, SynchEndType.B, syncher);
+      ainfo.timings = timings;
+      binfo.timings = timings;
 
-      boolean aChanged = false;
-      boolean bChanged = false;
-
-      if ((dir == SynchDirectionType.A_TO_B) || bothWays) {
-        aChanged = ainfo.inst.changed();
-      }
-
-      if ((dir == SynchDirectionType.B_TO_A) || bothWays) {
-        bChanged = binfo.inst.changed();
-      }
-
-      if (!aChanged && !bChanged) {
-        // Nothing to do. last refresh updated on the way out.
-        return StatusType.OK;
-      }
-
-      sub.setMissingTarget(false);
-
-      /* Build maps of the items we believe we will need to check more
-       * fully. We query the target for enough information to hopefully
-       * eliminate checks on most of the entries, e.g. we use lastmods
+      /* One window for both listings so an item missing at one end
+         was not just listed with a different window.
        */
+      final SynchWindow window = SynchWindow.of(sub.getInfo());
+      ainfo.window = window;
+      binfo.window = window;
 
-      ainfo.items = getItemsMap(ainfo);
-      if (ainfo.items == null) {
-        if (ainfo.missingTarget) {
-          sub.setMissingTarget(true);
-        }
-        return StatusType.ERROR;
-      }
-
-      binfo.items = getItemsMap(binfo);
-      if (binfo.items == null) {
-        if (binfo.missingTarget) {
-          sub.setMissingTarget(true);
-        }
-        return StatusType.ERROR;
-      }
-
-      /* updateInfo is a list of changes we need to apply to one or both ends
+      /* updateInfo is a list of changes we need to apply to one or both ends.
+       * If a previous resynch was interrupted we carry on with what it
+       * had left to do.
        */
-      List<SynchInfo> updateInfo = new ArrayList<>();
+      long t = ResynchTimings.begin();
+      List<SynchInfo> updateInfo = getLoggedChanges(sub);
+      timings.end(SynchEndType.NONE, Phase.db, t);
 
-      /* First see what we need to transfer from A to B */
-      if ((dir == SynchDirectionType.A_TO_B) || bothWays) {
-        getResynchs(updateInfo, ainfo, binfo);
-      }
-
-      /* Now B to A */
-      if ((dir == SynchDirectionType.B_TO_A) || bothWays) {
-        getResynchs(updateInfo, binfo, ainfo);
-      }
-
-      if ((dir == SynchDirectionType.A_TO_B) || bothWays) {
-        checkDeletes(updateInfo, binfo);
-      }
+      if (updateInfo.isEmpty()) {
+        final StatusType st = findChanges(sub, ainfo, binfo, updateInfo);
+        if (st != StatusType.OK) {
+          return st;
+        }
 
-      if ((dir == SynchDirectionType.B_TO_A) || bothWays) {
-        checkDeletes(updateInfo, ainfo);
+        t = ResynchTimings.begin();
+        checkpoint(sub, updateInfo);
+        timings.end(SynchEndType.NONE, Phase.db, t);
+      } else if (debug()) {
+        debug("Resuming resynch with " + updateInfo.size() +
+                      " changes for " + sub.getSubscriptionId());
       }
 
       if (debug()) {
@@ -768,6 +857,13 @@ public class Synchling implements Logged {
         }
       }
 
+      // Anything left in the log is done with
+      t = ResynchTimings.begin();
+      logged(updateInfo);
+      ainfo.inst.resynchDone();
+      binfo.inst.resynchDone();
+      timings.end(SynchEndType.NONE, Phase.db, t);
+
       sub.setErrorCt(0);
 
       return StatusType.OK;
@@ -776,6 +872,7 @@ public class Synchling implements Logged {
     } catch (final Throwable t) {
       throw new SynchException(t);
     } finally {
+      final long t = ResynchTimings.begin();
       final var msub = syncher.getSubscription(
               sub.getSubscriptionId());
       if (msub == null) {
@@ -785,27 +882,209 @@ public class Synchling implements Logged {
         sub.copyNonDb(msub);
         msub.updateLastRefresh();
         note.setSub(syncher.updateSubscription(msub));
+      }
+      timings.end(SynchEndType.NONE, Phase.db, t);
+
+      timings.done();
+      syncher.resynchDone(timings);
+
+      if (msub != null) {
         syncher.reschedule(note.getSub(), false);
       }
     }
   }
 
+  /* Compare the ends and add the changes needed to updateInfo.
+   */
+  private StatusType findChanges(final Subscription sub,
+                                 final ResynchInfo ainfo,
+                                 final ResynchInfo binfo,
+                                 final List<SynchInfo> updateInfo) {
+    final var dir = sub.getDirectionEnum();
+    final boolean bothWays =
+            dir == SynchDirectionType.BOTH_WAYS;
+
+    boolean aChanged = false;
+    boolean bChanged = false;
+
+    if ((dir == SynchDirectionType.A_TO_B) || bothWays) {
+      final long t = ResynchTimings.begin();
+      aChanged = ainfo.inst.changed();
+      ainfo.timings.end(SynchEndType.A, Phase.changed, t);
+    }
+
+    if ((dir == SynchDirectionType.B_TO_A) || bothWays) {
+      final long t = ResynchTimings.begin();
+      bChanged = binfo.inst.changed();
+      binfo.timings.end(SynchEndType.B, Phase.changed, t);
+    }
+
+    if (!aChanged && !bChanged) {
+      // Nothing to do. last refresh updated on the way out.
+      return StatusType.OK;
+    }
+
+    sub.setMissingTarget(false);
+
+    /* Build maps of the items we believe we will need to check more
+     * fully. We query the target for enough information to hopefully
+     * eliminate checks on most of the entries, e.g. we use lastmods
+     */
+
+    ainfo.items = getItemsTable(ainfo);
+    if (ainfo.items == null) {
+      if (ainfo.missingTarget) {
+        sub.setMissingTarget(true);
+      }
+      return StatusType.ERROR;
+    }
+
+    binfo.items = getItemsTable(binfo);
+    if (binfo.items == null) {
+      if (binfo.missingTarget) {
+        sub.setMissingTarget(true);
+      }
+      return StatusType.ERROR;
+    }
+
+    /* First see what we need to transfer from A to B */
+    if ((dir == SynchDirectionType.A_TO_B) || bothWays) {
+      getResynchs(updateInfo, ainfo, binfo);
+    }
+
+    /* Now B to A */
+    if ((dir == SynchDirectionType.B_TO_A) || bothWays) {
+      getResynchs(updateInfo, binfo, ainfo);
+    }
+
+    if ((dir == SynchDirectionType.A_TO_B) || bothWays) {
+      checkDeletes(updateInfo, binfo);
+    }
+
+    if ((dir == SynchDirectionType.B_TO_A) || bothWays) {
+      checkDeletes(updateInfo, ainfo);
+    }
+
+    return StatusType.OK;
+  }
+
+  /* Large change sets are recorded in the change log so an
+   * interrupted resynch can carry on from where it stopped.
+   */
+  private void checkpoint(final Subscription sub,
+                          final List<SynchInfo> updateInfo) {
+    final int threshold = syncher.getCheckpointThreshold();
+
+    if ((threshold < 0) || (updateInfo.size() <= threshold)) {
+      return;
+    }
+
+    final List<PendingChange> changes = new ArrayList<>(updateInfo.size());
+
+    for (final SynchInfo si: updateInfo) {
+      final PendingChange pc;
+
+      if (si.addTo != SynchEndType.NONE) {
+        pc = new PendingChange(sub.getSubscriptionId(), si.addTo,
+                               PendingChange.Action.add,
+                               si.itemInfo.uid);
+      } else if (si.updateEnd != SynchEndType.NONE) {
+        pc = new PendingChange(sub.getSubscriptionId(), si.updateEnd,
+                               PendingChange.Action.update,
+                               si.itemInfo.uid);
+      } else {
+        pc = new PendingChange(sub.getSubscriptionId(), si.deleteFrom,
+                               PendingChange.Action.delete,
+                               si.itemInfo.uid);
+      }
+
+      si.logged = pc;
+      changes.add(pc);
+    }
+
+    syncher.addPendingChanges(changes);
+
+    if (debug()) {
+      debug("Checkpointed " + changes.size() +
+                    " changes for " + sub.getSubscriptionId());
+    }
+  }
+
+  /* Rebuild the update list from the change log. Adds may have been
+   * made before we stopped so they are marked as resumed.
+   */
+  private List<SynchInfo> getLoggedChanges(final Subscription sub) {
+    final List<SynchInfo> updateInfo = new ArrayList<>();
+
+    for (final PendingChange pc:
+            syncher.getPendingChanges(sub.getSubscriptionId())) {
+      final SynchInfo si =
+              new SynchInfo(new ItemInfo(pc.getUid(),
+                                           ItemInfo.noLastmod,
+                                           null));
+
+      switch (pc.getActionEnum()) {
+        case add -> si.addTo = pc.getEndEnum();
+        case update -> si.updateEnd = pc.getEndEnum();
+        case delete -> si.deleteFrom = pc.getEndEnum();
+      }
+
+      si.logged = pc;
+      si.resumed = true;
+      updateInfo.add(si);
+    }
+
+    return updateInfo;
+  }
+
+  /* Remove the log entries for processed changes */
+  private void logged(final List<SynchInfo> sis) {
+    final List<PendingChange> done = new ArrayList<>();
+
+    for (final SynchInfo si: sis) {
+      if (si.logged != null) {
+        done.add(si.logged);
+        si.logged = null;
+      }
+    }
+
+    syncher.removePendingChanges(done);
+  }
+
   private void getResynchs(final List<SynchInfo> updateInfo,
                            final ResynchInfo fromInfo,
                            final ResynchInfo toInfo) {
-    final boolean useLastmods = fromInfo.trustLastmod && toInfo.trustLastmod;
-
-    for (final ItemInfo fromIi: fromInfo.items.values()) {
-      final ItemInfo toIi = toInfo.items.get(fromIi.uid);
+    getResynchs(updateInfo, fromInfo.items, toInfo.items, toInfo.end,
+                fromInfo.trustLastmod && toInfo.trustLastmod);
+  }
 
-      if (toIi == null) {
+  /** Find the items to add to or update at the to end. Items found at
+   * the to end are marked as seen for checkDeletes. Package private
+   * for the benchmarks.
+   *
+   * @param updateInfo changes are added to this
+   * @param fromItems table for the from end
+   * @param toItems table for the to end
+   * @param toEnd the end being changed
+   * @param useLastmods true if both ends have lastmods we can trust
+   */
+  void getResynchs(final List<SynchInfo> updateInfo,
+                   final ItemTable fromItems,
+                   final ItemTable toItems,
+                   final SynchEndType toEnd,
+                   final boolean useLastmods) {
+    for (int from = 0; from < fromItems.size(); from++) {
+      final String uid = fromItems.uid(from);
+      final int to = toItems.find(uid);
+
+      if (to < 0) {
         /* It's not in the to list - add to list to fetch from the from end */
         if (debug()) {
-          debug("Need to add to end " + toInfo.end + ": uid:" + fromIi.uid);
+          debug("Need to add to end " + toEnd + ": uid:" + uid);
         }
 
-        final SynchInfo si = new SynchInfo(fromIi);
-        si.addTo = toInfo.end;
+        final SynchInfo si = new SynchInfo(fromItems.getInfo(from));
+        si.addTo = toEnd;
         updateInfo.add(si);
         continue;
       }
@@ -813,49 +1092,71 @@ public class Synchling implements Logged {
       /* It is at the to end - mark as seen then compare to see if
        * we need to update
        */
-      toIi.seen = true;
+      toItems.setSeen(to);
 
       boolean update = true;
 
       if (useLastmods) {
-        update = cmpLastMods(toIi.lastMod, fromIi.lastMod) < 0;
+        final long toLm = toItems.lastModified(to);
+        final long fromLm = fromItems.lastModified(from);
+
+        // Without both lastmods we can't tell
+        update = (toLm == ItemInfo.noLastmod) ||
+                (fromLm == ItemInfo.noLastmod) ||
+                (toLm < fromLm);
       }
 
       if (!update) {
         if (debug()) {
-          debug("No need to update end " + toInfo.end + ": uid:" + fromIi.uid);
+          debug("No need to update end " + toEnd + ": uid:" + uid);
         }
-      } else if (debug()) {
-        debug("Need to update end " + toInfo.end + ": uid:" + fromIi.uid);
+        continue;
       }
 
-      final SynchInfo si = new SynchInfo(fromIi);
+      if (debug()) {
+        debug("Need to update end " + toEnd + ": uid:" + uid);
+      }
+
+      final SynchInfo si = new SynchInfo(fromItems.getInfo(from));
 
-      si.updateEnd = toInfo.end;
+      si.updateEnd = toEnd;
       updateInfo.add(si);
     }
   }
 
   private void checkDeletes(final List<SynchInfo> updateInfo,
                             final ResynchInfo toInfo) {
-    for (final ItemInfo ii: toInfo.items.values()) {
-      if (ii.seen) {
+    checkDeletes(updateInfo, toInfo.items, toInfo.end);
+  }
+
+  /** Find the items at the to end not seen by getResynchs. Package
+   * private for the benchmarks.
+   *
+   * @param updateInfo deletions are added to this
+   * @param items table for the to end
+   * @param toEnd the end being changed
+   */
+  void checkDeletes(final List<SynchInfo> updateInfo,
+                    final ItemTable items,
+                    final SynchEndType toEnd) {
+    for (int i = 0; i < items.size(); i++) {
+      if (items.seen(i)) {
         continue;
       }
 
-      final SynchInfo si = new SynchInfo(ii);
+      final SynchInfo si = new SynchInfo(items.getInfo(i));
       /* If the lastmod is later than the last synch and this is 2 way then
        * this one got added after we synched. Add it to end B.
        *
        * If the lastmod is previous to our last synch then this one needs to
        * be deleted.
        */
-      si.deleteFrom = toInfo.end;
+      si.deleteFrom = toEnd;
       updateInfo.add(si);
     }
   }
 
-  /** Uses the connector instance to fetch a map of info for items to be
+  /** Uses the connector instance to fetch a table of info for items to be
    * synchronised from the target designated by the information.
    *
    * <p>The information identifies the record (by uid at the moment)
@@ -863,13 +1164,13 @@ public class Synchling implements Logged {
    * e.g lastmod</p>
    *
    * @param rinfo resynchinfo
-   * @return map or null for error
+   * @return table or null for error
    */
-  private Map<String, ItemInfo> getItemsMap(final ResynchInfo rinfo) {
-    /* Items is a table built from the target calendar */
-    final Map<String, ItemInfo> items = new HashMap<>();
+  private ItemTable getItemsTable(final ResynchInfo rinfo) {
+    final long t = ResynchTimings.begin();
+    final SynchItemsInfo sii = rinfo.inst.getItemsInfo(rinfo.window);
+    rinfo.timings.end(rinfo.end, Phase.itemsInfo, t);
 
-    final SynchItemsInfo sii = rinfo.inst.getItemsInfo();
     if (sii.getStatus() != StatusType.OK) {
       if ((sii.getErrorResponse() != null) &&
           (sii.getErrorResponse().getError() != null)) {
@@ -884,13 +1185,17 @@ public class Synchling implements Logged {
       return null;
     }
 
+    rinfo.timings.listed(sii.items.size());
+
+    /* Items is a table built from the target calendar */
+    final ItemTable items = new ItemTable(sii.items.size());
+
     for (final ItemInfo ii: sii.items) {
       if (debug()) {
         debug(ii.toString());
       }
 
-      ii.seen = false;
-      items.put(ii.uid, ii);
+      items.add(ii);
     }
 
     return items;
@@ -959,13 +1264,27 @@ public class Synchling implements Logged {
      *
      */
 
+    final ResynchTimings timings = toInfo.timings;
+
+    long t = ResynchTimings.begin();
     final List<FetchItemResponseType> firs = fromInfo.inst.fetchItems(uids);
+    timings.end(fromInfo.end, Phase.fetch, t);
+    timings.fetched(firs.size());
 
     final Iterator<SynchInfo> siit = sis.iterator();
     for (final FetchItemResponseType fir: firs) {
       final SynchInfo si = siit.next();
 
+      if ((si.addTo == toInfo.end) && si.resumed &&
+              (fetchTarget(si.itemInfo.uid, toInfo).getStatus() ==
+                       StatusType.OK)) {
+        // Added before we were interrupted - make sure it's up to date
+        si.addTo = SynchEndType.NONE;
+        si.updateEnd = toInfo.end;
+      }
+
       if (si.addTo == toInfo.end) {
+        t = ResynchTimings.begin();
         IcalendarType filtered = Filters.doFilters(fir.getIcalendar(),
                                                    fromInfo.getInFilters());
 
@@ -973,7 +1292,12 @@ public class Synchling implements Logged {
           filtered = Filters.doFilters(filtered,
                                        toInfo.getOutFilters());
         }
+        timings.end(SynchEndType.NONE, Phase.filter, t);
+
+        t = ResynchTimings.begin();
         final AddItemResponseType air = toInfo.inst.addItem(filtered);
+        timings.end(toInfo.end, Phase.write, t);
+        timings.written();
 
         toInfo.lastCts.created++;
         toInfo.totalCts.created++;
@@ -988,7 +1312,8 @@ public class Synchling implements Logged {
 
       if (si.updateEnd == toInfo.end) {
         // Update the instance
-        final FetchItemResponseType toFir = toInfo.inst.fetchItem(si.itemInfo.uid);
+        final FetchItemResponseType toFir =
+                fetchTarget(si.itemInfo.uid, toInfo);
 
         if (toFir.getStatus() != StatusType.OK) {
           warn("Unable to fetch destination entity for update: message was " +
@@ -996,6 +1321,7 @@ public class Synchling implements Logged {
           continue;
         }
 
+        t = ResynchTimings.begin();
         IcalendarType filtered = Filters.doFilters(fir.getIcalendar(),
                                                    fromInfo.getInFilters());
 
@@ -1005,6 +1331,8 @@ public class Synchling implements Logged {
         }
 
         if (filtered == null) {
+          timings.end(SynchEndType.NONE, Phase.filter, t);
+
           if (debug()) {
             debug("Filter removed everything for " + si.itemInfo.uid);
           }
@@ -1015,12 +1343,15 @@ public class Synchling implements Logged {
         final IcalendarType toFiltered =
                 Filters.doFilters(toFir.getIcalendar(),
                                   toInfo.getInFilters());
+        timings.end(SynchEndType.NONE, Phase.filter, t);
 
+        t = ResynchTimings.begin();
         final ComponentSelectionType cst =
                 getDiffer(note,
                           fromInfo,
                           toInfo).diff(filtered,
                                        toFiltered);
+        timings.end(SynchEndType.NONE, Phase.diff, t);
 
         if (cst == null) {
           if (debug()) {
@@ -1040,7 +1371,10 @@ public class Synchling implements Logged {
         ui.setChangeToken(toFir.getChangeToken());
         ui.getSelect().add(cst);
 
+        t = ResynchTimings.begin();
         final UpdateItemResponseType uir = toInfo.inst.updateItem(ui);
+        timings.end(toInfo.end, Phase.write, t);
+        timings.written();
 
         if (uir.getStatus() != StatusType.OK) {
           error(format("Unable to update destination entity. " +
@@ -1057,6 +1391,10 @@ public class Synchling implements Logged {
       warn("Should not get here");
     }
 
+    t = ResynchTimings.begin();
+    logged(sis);
+    timings.end(SynchEndType.NONE, Phase.db, t);
+
     return callAgain;
   }
 
@@ -1075,8 +1413,11 @@ public class Synchling implements Logged {
         continue;
       }
 
+      final long t = ResynchTimings.begin();
       final DeleteItemResponseType dir =
               toInfo.inst.deleteItem(si.itemInfo.uid);
+      toInfo.timings.end(toInfo.end, Phase.write, t);
+      toInfo.timings.written();
       final var status = dir.getStatus();
       if (!status.equals(StatusType.OK)) {
         error(format("Failed to delete %s, status was %s",
@@ -1085,34 +1426,19 @@ public class Synchling implements Logged {
     }
   }
 
-  private int cmpLastMods(final String calLmod, final String exLmod) {
-    int exi = 0;
-    if (calLmod == null) {
-      return -1;
+  /* Timed if we are in a resynch */
+  private FetchItemResponseType fetchTarget(final String uid,
+                                            final ResynchInfo toInfo) {
+    if (toInfo.timings == null) {
+      return toInfo.inst.fetchItem(uid);
     }
 
-    for (int i = 0; i < 16; i++) {
-      final char cal = calLmod.charAt(i);
-      final char ex = exLmod.charAt(exi);
-
-      if (cal < ex) {
-        return -1;
-      }
-
-      if (cal > ex) {
-        return 1;
-      }
-
-      exi++;
-
-      // yyyy-mm-ddThh:mm:ssZ
-      //     4  7     12 15
-      if ((exi == 4) || (exi == 7) || (exi == 12) || (exi == 15)) {
-        exi++;
-      }
-    }
+    final long t = ResynchTimings.begin();
+    final FetchItemResponseType fir = toInfo.inst.fetchItem(uid);
+    toInfo.timings.end(toInfo.end, Phase.fetch, t);
+    toInfo.timings.fetched(1);
 
-    return 0;
+    return fir;
   }
 
   @SuppressWarnings("UnusedParameters")
@@ -18,10 +18,14 @@
 */
 package org.bedework.synch;
 
+import org.bedework.synch.shared.Metrics;
+import org.bedework.synch.shared.Metrics.Counter;
+import org.bedework.synch.shared.Metrics.Histogram;
 import org.bedework.synch.shared.Stat;
 import org.bedework.synch.shared.SynchEngine;
 import org.bedework.synch.shared.exception.SynchException;
 import org.bedework.synch.shared.exception.SynchTimeout;
+import org.bedework.synch.shared.jfr.SynchlingAcquireEvent;
 import org.bedework.util.logging.BwLogger;
 import org.bedework.util.logging.Logged;
 import org.bedework.base.ToString;
@@ -47,11 +51,13 @@ public class SynchlingPool implements Logged {
 
   private long timeout; // millisecs
 
-  private long waitTimes;
+  private Counter waitTimes;
 
-  private long gets;
+  private Counter gets;
 
-  private long getSynchlingFailures;
+  private Counter getSynchlingFailures;
+
+  private Histogram waits;
 
   /** Create a pool with the given size
    *
@@ -64,6 +70,13 @@ public class SynchlingPool implements Logged {
                     final long timeout) {
     this.syncher = syncher;
     this.timeout = timeout;
+
+    final Metrics metrics = syncher.getMetrics();
+    waitTimes = metrics.counter("synchling waitTimes");
+    gets = metrics.counter("synchling gets");
+    getSynchlingFailures = metrics.counter("synchling get failures");
+    waits = metrics.histogram("synchling wait");
+
     resize(size);
   }
 
@@ -142,21 +155,21 @@ public class SynchlingPool implements Logged {
    * @return total waitTimes in millisecs
    */
   public long getWaitTimes() {
-    return waitTimes;
+    return waitTimes.get();
   }
 
   /**
    * @return number of gets
    */
   public long getGets() {
-    return gets;
+    return gets.get();
   }
 
   /**
    * @return number of get failures
    */
   public long getGetSynchlingFailures() {
-    return getSynchlingFailures;
+    return getSynchlingFailures.get();
   }
 
   /**
@@ -213,8 +226,10 @@ public class SynchlingPool implements Logged {
 
   private Synchling get(final boolean throwOnFailure) {
     final Synchling s;
-    gets++;
+    gets.inc();
     final long st = System.currentTimeMillis();
+    final SynchlingAcquireEvent ev = new SynchlingAcquireEvent();
+    ev.begin();
 
     try {
       s = getPool().poll(getTimeout(), TimeUnit.MILLISECONDS);
@@ -224,10 +239,15 @@ public class SynchlingPool implements Logged {
       throw new SynchException(t);
     }
 
-    waitTimes += System.currentTimeMillis() - st;
+    final long wait = System.currentTimeMillis() - st;
+    waitTimes.add(wait);
+    waits.record(wait);
+
+    ev.acquired = s != null;
+    ev.commit();
 
     if (s == null) {
-      getSynchlingFailures++;
+      getSynchlingFailures.inc();
 
       if (throwOnFailure) {
         throw new SynchTimeout("Synchling pool wait");
@@ -245,7 +265,7 @@ public class SynchlingPool implements Logged {
     return pool;
   }
 
-  /** Get the current stats
+  /** Get the current stats. The counters are in the engine metrics.
    *
    * @return List of Stat
    */
@@ -254,9 +274,6 @@ public class SynchlingPool implements Logged {
 
     stats.add(new Stat("synchling get timeout", getTimeout()));
     stats.add(new Stat("synchling active", getActiveCt()));
-    stats.add(new Stat("synchling gets", getGets()));
-    stats.add(new Stat("synchling waitTimes", getWaitTimes()));
-    stats.add(new Stat("synchling get failures", getGetSynchlingFailures()));
     stats.add(new Stat("synchling currentMaxSize", getCurrentMaxSize()));
     stats.add(new Stat("synchling currentAvailable", getCurrentAvailable()));
 
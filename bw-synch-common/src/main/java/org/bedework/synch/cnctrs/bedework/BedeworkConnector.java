@@ -19,6 +19,7 @@
 package org.bedework.synch.cnctrs.bedework;
 
 import org.bedework.synch.shared.Notification;
+import org.bedework.synch.shared.Notification.NotificationItem.ActionType;
 import org.bedework.synch.shared.PropertiesInfo;
 import org.bedework.synch.shared.Subscription;
 import org.bedework.synch.shared.SubscriptionInfo;
@@ -27,6 +28,9 @@ import org.bedework.synch.shared.SynchEngine;
 import org.bedework.synch.shared.cnctrs.AbstractConnector;
 import org.bedework.synch.shared.exception.SynchException;
 import org.bedework.synch.wsmessages.CalProcessingType;
+import org.bedework.synch.wsmessages.ChangedItemType;
+import org.bedework.synch.wsmessages.ItemsChangedNotificationType;
+import org.bedework.synch.wsmessages.ItemsChangedResponseType;
 import org.bedework.synch.wsmessages.KeepAliveNotificationType;
 import org.bedework.synch.wsmessages.KeepAliveResponseType;
 import org.bedework.synch.wsmessages.StartServiceNotificationType;
@@ -39,6 +43,11 @@ import org.oasis_open.docs.ws_calendar.ns.soap.GetPropertiesResponseType;
 import org.oasis_open.docs.ws_calendar.ns.soap.GetPropertiesType;
 import org.oasis_open.docs.ws_calendar.ns.soap.StatusType;
 
+import java.util.List;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
 /** The synch processor connector for connections to bedework.
  *
  * @author Mike Douglass
@@ -195,6 +204,53 @@ public class BedeworkConnector
                                          this, sub, end, info);
   }
 
+  /** Bedework notifies us of changes to items in subscribed
+   * collections. The changes are queued to the engine and the
+   * response is sent straight away.
+   */
+  @Override
+  public NotificationBatch<Notification<?>> handleCallback(
+          final HttpServletRequest req,
+          final HttpServletResponse resp,
+          final List<String> resourceUri) {
+    try {
+      final Object o = unmarshalBody(req);
+
+      if (!(o instanceof final ItemsChangedNotificationType icn)) {
+        resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+        return null;
+      }
+
+      final ItemsChangedResponseType icr = new ItemsChangedResponseType();
+
+      if ((remoteToken == null) || !remoteToken.equals(icn.getToken())) {
+        warn("Items changed notification with bad token");
+        icr.setStatus(StatusType.NO_ACCESS);
+      } else {
+        for (final ChangedItemType ci: icn.getItem()) {
+          syncher.queueItemChange(icn.getSubscriptionId(),
+                                  icn.getEnd(),
+                                  ci.getUid(),
+                                  switch (ci.getChange()) {
+                                    case CREATED -> ActionType.CreatedEvent;
+                                    case MODIFIED -> ActionType.ModifiedEvent;
+                                    case DELETED -> ActionType.DeletedEvent;
+                                  });
+        }
+
+        icr.setStatus(StatusType.OK);
+      }
+
+      marshal(of.createItemsChangedResponse(icr), resp.getOutputStream());
+
+      return null;
+    } catch (final SynchException se) {
+      throw se;
+    } catch(final Throwable t) {
+      throw new SynchException(t);
+    }
+  }
+
   @Override
   public void stop() {
     stopped = true;
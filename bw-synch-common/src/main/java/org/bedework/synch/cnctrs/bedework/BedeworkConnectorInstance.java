@@ -19,6 +19,7 @@
 package org.bedework.synch.cnctrs.bedework;
 
 import org.bedework.synch.shared.Subscription;
+import org.bedework.synch.shared.SynchWindow;
 import org.bedework.synch.shared.cnctrs.AbstractConnectorInstance;
 import org.bedework.synch.shared.exception.SynchException;
 import org.bedework.synch.wsmessages.SynchEndType;
@@ -92,6 +93,11 @@ public class BedeworkConnectorInstance
 
   @Override
   public SynchItemsInfo getItemsInfo() {
+    return getItemsInfo(SynchWindow.of(sub.getInfo()));
+  }
+
+  @Override
+  public SynchItemsInfo getItemsInfo(final SynchWindow window) {
     /* Build a calendar query to fetch all the items in the referenced
      * collection
      */
@@ -154,14 +160,21 @@ public class BedeworkConnectorInstance
 
     fltr.setCompFilter(cf);
 
+    /* Limit to the synch window if there is one */
     CompFilterType cfent = new CompFilterType();
     cf.getCompFilter().add(cfent);
     cfent.setBaseComponent(of.createVevent(new VeventType()));
     //cfent.setName(XcalTags.vevent.getLocalPart());
+    if (window != null) {
+      cfent.setTimeRange(window.getTimeRange());
+    }
 
     cfent = new CompFilterType();
     cf.getCompFilter().add(cfent);
     cfent.setBaseComponent(of.createVtodo(new VtodoType()));
+    if (window != null) {
+      cfent.setTimeRange(window.getTimeRange());
+    }
 
     /* Execute the query */
 
@@ -227,7 +240,14 @@ public class BedeworkConnectorInstance
             (LastModifiedPropType)XcalUtil.findProperty(comp,
                                                         XcalTags.lastModified);
 
-    return new ItemInfo(uid.getText(), lastmod.getUtcDateTime().toXMLFormat(), null);
+    final long lm;
+    if (lastmod == null) {
+      lm = ItemInfo.noLastmod;
+    } else {
+      lm = ItemInfo.toMillis(lastmod.getUtcDateTime());
+    }
+
+    return new ItemInfo(uid.getText(), lm, null);
   }
 
   @Override
@@ -265,15 +285,9 @@ public class BedeworkConnectorInstance
     cf.getCompFilter().add(cfev);
     cfev.setBaseComponent(of.createVevent(new VeventType()));
 
-    /* XXX We need to limit the time range we are synching
-    if (start != null) {
-      UTCTimeRangeType tr = new UTCTimeRangeType();
-
-      tr.setStart(XcalUtil.getXMlUTCCal(start));
-      tr.setEnd(XcalUtil.getXMlUTCCal(end));
-
-      cfev.setTimeRange(tr);
-    }*/
+    /* No time range here - the synch window is applied when we list
+     * the items. Fetching by uid has to find the item wherever it is.
+     */
 
     final PropFilterType pr = new PropFilterType();
     pr.setBaseProperty(of.createUid(new UidPropType()));
@@ -26,7 +26,6 @@ import org.bedework.synch.shared.SynchDefs.SynchKind;
 import org.bedework.synch.shared.SynchEngine;
 import org.bedework.synch.shared.SynchPropertyInfo;
 import org.bedework.synch.shared.cnctrs.AbstractConnector;
-import org.bedework.synch.shared.cnctrs.ConnectorInstanceMap;
 import org.bedework.synch.shared.exception.SynchException;
 import org.bedework.synch.wsmessages.SynchEndType;
 
@@ -56,9 +55,6 @@ public class CampusGroupsConnector
                   false);
   }
 
-  private final ConnectorInstanceMap<CampusGroupsConnectorInstance> cinstMap =
-      new ConnectorInstanceMap<>();
-
   /**
    */
   public CampusGroupsConnector() {
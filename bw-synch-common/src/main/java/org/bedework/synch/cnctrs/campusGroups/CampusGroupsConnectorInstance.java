@@ -23,23 +23,17 @@ import org.bedework.synch.shared.cnctrs.BaseConnectorInstance;
 import org.bedework.synch.shared.exception.SynchException;
 import org.bedework.synch.wsmessages.SynchEndType;
 import org.bedework.util.calendar.IcalToXcal;
-import org.bedework.util.misc.Util;
 
 import ietf.params.xml.ns.icalendar_2.IcalendarType;
 import net.fortuna.ical4j.data.CalendarBuilder;
-import net.fortuna.ical4j.data.UnfoldingReader;
 import net.fortuna.ical4j.model.Calendar;
-import net.fortuna.ical4j.model.Component;
-import net.fortuna.ical4j.model.Parameter;
-import net.fortuna.ical4j.model.Property;
-import net.fortuna.ical4j.model.PropertyList;
-import net.fortuna.ical4j.model.component.CalendarComponent;
 import net.fortuna.ical4j.util.CompatibilityHints;
 import org.apache.http.client.utils.URIBuilder;
 
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 
 /** Handles file synch interactions.
  *
@@ -94,45 +88,12 @@ public class CampusGroupsConnectorInstance
               .setHintEnabled(CompatibilityHints.KEY_RELAXED_PARSING,
                               true);
 
-      final UnfoldingReader ufrdr =
-              new UnfoldingReader(new InputStreamReader(is), true);
-      final Calendar ical = builder.build(ufrdr);
-
-      /* Categories come in looking like this:
-            CATEGORIES;X-CG-CATEGORY=club_acronym:AACC
-            CATEGORIES;X-CG-CATEGORY=event_type:Social
-            CATEGORIES;X-CG-CATEGORY=event_tags:Movie
-          convert them to:
-            CATEGORIES:club_acronym/AACC
-            CATEGORIES:event_type/Social
-            CATEGORIES:event_tags/Movie
+      /* The UTC values and categories are fixed on the content lines
+         as they are read, so the parsed calendar is converted as is.
        */
-
-      for (final CalendarComponent comp: ical.getComponents()) {
-        if (!comp.getName().equals(Component.VEVENT)) {
-          continue;
-        }
-
-        /* Fix the date time values that should be UTC
-         */
-        ensureUTC(comp.getProperty(Property.CREATED));
-        ensureUTC(comp.getProperty(Property.DTSTAMP));
-        ensureUTC(comp.getProperty(Property.LAST_MODIFIED));
-
-        final PropertyList<Property> cats =
-                comp.getProperties(Property.CATEGORIES);
-        if (Util.isEmpty(cats)) {
-          continue;
-        }
-
-        for (final Property prop: cats) {
-          final Parameter par = prop.getParameter("X-CG-CATEGORY");
-          if ((par != null) && (par.getValue() != null)) {
-            prop.setValue(par.getValue() + "/" + prop.getValue());
-            prop.getParameters().remove(par);
-          }
-        }
-      }
+      final Calendar ical = builder.build(
+              new CampusGroupsNormalizer(
+                      new InputStreamReader(is, StandardCharsets.UTF_8)));
 
       /* Convert each entity to XML */
 
@@ -146,23 +107,4 @@ public class CampusGroupsConnectorInstance
   public boolean getIcal() {
     return getIcal("text/calendar");
   }
-
-  /* ====================================================================
-   *                   Private methods
-   * ==================================================================== */
-
-  private void ensureUTC(final Property p) {
-    if (p == null) {
-      return;
-    }
-
-    final String val= p.getValue();
-    if (!val.endsWith("Z")) {
-      try {
-        p.setValue(val + "Z");
-      } catch (final Throwable t) {
-        throw new RuntimeException(t);
-      }
-    }
-  }
 }
@@ -0,0 +1,267 @@
+/* ********************************************************************
+    Licensed to Jasig under one or more contributor license
+    agreements. See the NOTICE file distributed with this work
+    for additional information regarding copyright ownership.
+    Jasig licenses this file to you under the Apache License,
+    Version 2.0 (the "License"); you may not use this file
+    except in compliance with the License. You may obtain a
+    copy of the License at:
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on
+    an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied. See the License for the
+    specific language governing permissions and limitations
+    under the License.
+*/
+package org.bedework.synch.cnctrs.campusGroups;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/** Unfolds a CampusGroups feed and fixes it up a content line at a
+ * time, so the parsed calendar needs no further changes.
+ *
+ * <p>In VEVENT components CREATED, DTSTAMP and LAST-MODIFIED are
+ * supposed to be UTC but come without the "Z". Categories come in
+ * looking like this:
+ * <pre>
+ *   CATEGORIES;X-CG-CATEGORY=club_acronym:AACC
+ *   CATEGORIES;X-CG-CATEGORY=event_type:Social
+ * </pre>
+ * and are converted to:
+ * <pre>
+ *   CATEGORIES:club_acronym/AACC
+ *   CATEGORIES:event_type/Social
+ * </pre>
+ *
+ * <p>Output lines are unfolded and end with CRLF.
+ *
+ * @author Mike Douglass
+ */
+class CampusGroupsNormalizer extends Reader {
+  private static final String cgCategory = "X-CG-CATEGORY";
+
+  private final BufferedReader in;
+
+  /* Next physical line - read ahead to find continuations */
+  private String next;
+
+  /* Names of the open components - innermost first */
+  private final Deque<String> comps = new ArrayDeque<>();
+
+  private final StringBuilder buf = new StringBuilder();
+
+  private int pos;
+
+  private boolean eof;
+
+  /**
+   * @param in the feed
+   */
+  CampusGroupsNormalizer(final Reader in) {
+    this.in = new BufferedReader(in);
+  }
+
+  @Override
+  public int read(final char[] cbuf,
+                  final int off,
+                  final int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+
+    while (pos == buf.length()) {
+      if (eof) {
+        return -1;
+      }
+
+      fill();
+    }
+
+    final int n = Math.min(len, buf.length() - pos);
+
+    buf.getChars(pos, pos + n, cbuf, off);
+    pos += n;
+
+    return n;
+  }
+
+  @Override
+  public void close() throws IOException {
+    in.close();
+  }
+
+  /* ==============================================================
+   *                   Private methods
+   * ============================================================== */
+
+  private void fill() throws IOException {
+    buf.setLength(0);
+    pos = 0;
+
+    final String line = unfolded();
+
+    if (line == null) {
+      eof = true;
+      return;
+    }
+
+    buf.append(normalize(line)).append("\r\n");
+  }
+
+  /* Relaxed unfolding - a continuation is any line starting with a
+   * space or tab whatever the line ending.
+   */
+  private String unfolded() throws IOException {
+    String line = next;
+
+    if (line == null) {
+      line = in.readLine();
+
+      if (line == null) {
+        return null;
+      }
+    }
+
+    next = in.readLine();
+
+    if ((next == null) ||
+            next.isEmpty() ||
+            ((next.charAt(0) != ' ') && (next.charAt(0) != '\t'))) {
+      return line;
+    }
+
+    final StringBuilder sb = new StringBuilder(line);
+
+    while ((next != null) &&
+            !next.isEmpty() &&
+            ((next.charAt(0) == ' ') || (next.charAt(0) == '\t'))) {
+      sb.append(next, 1, next.length());
+      next = in.readLine();
+    }
+
+    return sb.toString();
+  }
+
+  private String normalize(final String line) {
+    final int nameEnd = nameEnd(line);
+
+    if (nameEnd == line.length()) {
+      // No value - leave it for the parser
+      return line;
+    }
+
+    final String name = line.substring(0, nameEnd);
+
+    if (name.equalsIgnoreCase("BEGIN")) {
+      comps.push(line.substring(nameEnd + 1).trim());
+      return line;
+    }
+
+    if (name.equalsIgnoreCase("END")) {
+      comps.poll();
+      return line;
+    }
+
+    if (!"VEVENT".equalsIgnoreCase(comps.peek())) {
+      return line;
+    }
+
+    if (name.equalsIgnoreCase("CREATED") ||
+            name.equalsIgnoreCase("DTSTAMP") ||
+            name.equalsIgnoreCase("LAST-MODIFIED")) {
+      if (line.endsWith("Z")) {
+        return line;
+      }
+
+      return line + "Z";
+    }
+
+    if (name.equalsIgnoreCase("CATEGORIES")) {
+      return category(line, nameEnd);
+    }
+
+    return line;
+  }
+
+  /* Rewrite the value as category/value and drop the parameter */
+  private static String category(final String line,
+                                 final int nameEnd) {
+    final StringBuilder sb = new StringBuilder(line.length());
+    String cat = null;
+    int i = nameEnd;
+
+    sb.append(line, 0, nameEnd);
+
+    while ((i < line.length()) && (line.charAt(i) == ';')) {
+      final int parStart = i;
+      final int eq = line.indexOf('=', i);
+
+      if (eq < 0) {
+        // Malformed - leave it for the parser
+        return line;
+      }
+
+      i = eq + 1;
+
+      final String parVal;
+
+      if ((i < line.length()) && (line.charAt(i) == '"')) {
+        final int close = line.indexOf('"', i + 1);
+
+        if (close < 0) {
+          return line;
+        }
+
+        parVal = line.substring(i + 1, close);
+        i = close + 1;
+      } else {
+        final int valStart = i;
+
+        while ((i < line.length()) &&
+                (line.charAt(i) != ';') &&
+                (line.charAt(i) != ':')) {
+          i++;
+        }
+
+        parVal = line.substring(valStart, i);
+      }
+
+      if (line.substring(parStart + 1, eq).equalsIgnoreCase(cgCategory)) {
+        cat = parVal;
+      } else {
+        sb.append(line, parStart, i);
+      }
+    }
+
+    if ((cat == null) || (i >= line.length())) {
+      return line;
+    }
+
+    // At the ':'
+    return sb.append(':')
+             .append(cat)
+             .append('/')
+             .append(line, i + 1, line.length())
+             .toString();
+  }
+
+  /* Position of the first ';' or ':' - the end of the property name */
+  private static int nameEnd(final String line) {
+    for (int i = 0; i < line.length(); i++) {
+      final char c = line.charAt(i);
+
+      if ((c == ';') || (c == ':')) {
+        return i;
+      }
+    }
+
+    return line.length();
+  }
+}
@@ -26,7 +26,6 @@ import org.bedework.synch.shared.SynchDefs.SynchKind;
 import org.bedework.synch.shared.SynchEngine;
 import org.bedework.synch.shared.SynchPropertyInfo;
 import org.bedework.synch.shared.cnctrs.AbstractConnector;
-import org.bedework.synch.shared.cnctrs.ConnectorInstanceMap;
 import org.bedework.synch.wsmessages.SynchEndType;
 
 /** The synch processor connector for subscriptions to files.
@@ -56,9 +55,6 @@ public class FileConnector
                   false);
   }
 
-  private final ConnectorInstanceMap<FileConnectorInstance> cinstMap =
-      new ConnectorInstanceMap<>();
-
   /**
    */
   public FileConnector() {
@@ -26,7 +26,6 @@ import org.bedework.synch.shared.SynchDefs.SynchKind;
 import org.bedework.synch.shared.SynchEngine;
 import org.bedework.synch.shared.SynchPropertyInfo;
 import org.bedework.synch.shared.cnctrs.AbstractConnector;
-import org.bedework.synch.shared.cnctrs.ConnectorInstanceMap;
 import org.bedework.synch.wsmessages.SynchEndType;
 
 /** The synch processor connector for subscriptions to orgsync.
@@ -61,9 +60,6 @@ public class OrgSyncV2Connector
                  false);
   }
 
-  private final ConnectorInstanceMap<OrgSyncV2ConnectorInstance> cinstMap =
-      new ConnectorInstanceMap<>();
-
   /**
    */
   public OrgSyncV2Connector() {
@@ -18,27 +18,25 @@
 */
 package org.bedework.synch.cnctrs.orgSyncV2;
 
+import org.bedework.synch.shared.ItemStamp;
 import org.bedework.synch.shared.Subscription;
+import org.bedework.synch.shared.SynchEngine;
 import org.bedework.synch.shared.cnctrs.BaseConnectorInstance;
 import org.bedework.synch.shared.exception.SynchException;
 import org.bedework.synch.wsmessages.SynchEndType;
-import org.bedework.util.calendar.XcalUtil;
 import org.bedework.util.misc.Util;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import ietf.params.xml.ns.icalendar_2.ArrayOfComponents;
-import ietf.params.xml.ns.icalendar_2.ArrayOfParameters;
 import ietf.params.xml.ns.icalendar_2.ArrayOfProperties;
 import ietf.params.xml.ns.icalendar_2.BasePropertyType;
 import ietf.params.xml.ns.icalendar_2.CategoriesPropType;
 import ietf.params.xml.ns.icalendar_2.CreatedPropType;
-import ietf.params.xml.ns.icalendar_2.DateDatetimePropertyType;
 import ietf.params.xml.ns.icalendar_2.DescriptionPropType;
 import ietf.params.xml.ns.icalendar_2.DtendPropType;
 import ietf.params.xml.ns.icalendar_2.DtstampPropType;
 import ietf.params.xml.ns.icalendar_2.DtstartPropType;
 import ietf.params.xml.ns.icalendar_2.IcalendarType;
+import ietf.params.xml.ns.icalendar_2.LastModifiedPropType;
 import ietf.params.xml.ns.icalendar_2.LocationPropType;
 import ietf.params.xml.ns.icalendar_2.ProdidPropType;
 import ietf.params.xml.ns.icalendar_2.RdatePropType;
@@ -47,21 +45,15 @@ import ietf.params.xml.ns.icalendar_2.UidPropType;
 import ietf.params.xml.ns.icalendar_2.VcalendarType;
 import ietf.params.xml.ns.icalendar_2.VersionPropType;
 import ietf.params.xml.ns.icalendar_2.VeventType;
-import ietf.params.xml.ns.icalendar_2.XBedeworkLocKeyParamType;
 import org.apache.http.client.utils.URIBuilder;
 
 import java.io.InputStream;
 import java.net.URI;
 import java.time.LocalDate;
-import java.time.ZoneOffset;
-import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 
 import jakarta.xml.bind.JAXBElement;
-import javax.xml.datatype.DatatypeConfigurationException;
-import javax.xml.datatype.DatatypeFactory;
-import javax.xml.datatype.XMLGregorianCalendar;
 
 /** Handles orgsync v2 synch interactions.
  *
@@ -71,7 +63,10 @@ public class OrgSyncV2ConnectorInstance
         extends BaseConnectorInstance<OrgSyncV2Connector,
                                       OrgSyncV2SubscriptionInfo,
                                       OrgSyncV2ConnectorConfig> {
-  private final ObjectMapper om = new ObjectMapper();
+  /* Conversion of the last feed fetched - its stamps are saved once
+     a resynch using it has completed.
+   */
+  private OrgSyncV2Conversion converted;
 
   OrgSyncV2ConnectorInstance(final OrgSyncV2ConnectorConfig config,
                              final OrgSyncV2Connector cnctr,
@@ -120,17 +115,58 @@ public class OrgSyncV2ConnectorInstance
     }
   }
 
+  @Override
+  public void resynchDone() {
+    final OrgSyncV2Conversion cv = converted;
+    converted = null;
+
+    if (cv == null) {
+      return;
+    }
+
+    final List<ItemStamp> changed = cv.getChanged();
+    final List<ItemStamp> gone = cv.getGone();
+
+    if (debug()) {
+      debug("OrgSync stamps: changed " + changed.size() +
+                    " gone " + gone.size());
+    }
+
+    final SynchEngine syncher = cnctr.getSyncher();
+
+    syncher.saveItemStamps(changed);
+    syncher.removeItemStamps(gone);
+  }
+
+  @Override
+  public void release() {
+    /* Stamps from a resynch which didn't complete are dropped. The
+       next conversion starts again from the saved ones.
+     */
+    converted = null;
+    super.release();
+  }
+
   @Override
   public IcalendarType makeXcal(final InputStream is) {
-    try {
-      final List<OrgSyncV2Event> osEvents =
-              om.readValue(is, new TypeReference<>() {
-              });
+    /* Convert each event to XML as it is read. The stamps are saved
+       by resynchDone so a failed resynch leaves the old ones.
+     */
+
+    final SynchEngine syncher = cnctr.getSyncher();
+    final OrgSyncV2Conversion cv =
+            new OrgSyncV2Conversion(
+                    of, info.getLocationKey(),
+                    sub.getSubscriptionId(),
+                    syncher.getItemStamps(sub.getSubscriptionId()));
 
-        /* Convert each entity to XML */
+    try (final OrgSyncV2Reader rdr =
+                 new OrgSyncV2Reader(is, info.getOrgSyncPublicOnly())) {
+      final IcalendarType ical = toXcal(rdr, cv);
 
-      return toXcal(osEvents,
-                    info.getOrgSyncPublicOnly());
+      converted = cv;
+
+      return ical;
     } catch (final SynchException se) {
       throw se;
     } catch (final Throwable t) {
@@ -147,8 +183,8 @@ public class OrgSyncV2ConnectorInstance
    *                   Private methods
    * ============================================================== */
 
-  private IcalendarType toXcal(final List<OrgSyncV2Event> osEvents,
-                               final boolean onlyPublic) {
+  private IcalendarType toXcal(final OrgSyncV2Reader rdr,
+                               final OrgSyncV2Conversion cv) {
     final IcalendarType ical = new IcalendarType();
     final VcalendarType vcal = new VcalendarType();
 
@@ -169,11 +205,9 @@ public class OrgSyncV2ConnectorInstance
     final ArrayOfComponents aoc = new ArrayOfComponents();
     vcal.setComponents(aoc);
 
-    for (final OrgSyncV2Event osev: osEvents) {
-      if (onlyPublic && !osev.getIsPublic()) {
-        continue;
-      }
+    OrgSyncV2Event osev;
 
+    while ((osev = rdr.next()) != null) {
       final VeventType ev = new VeventType();
 
       aoc.getBaseComponent().add(of.createVevent(ev));
@@ -182,48 +216,38 @@ public class OrgSyncV2ConnectorInstance
       final List<JAXBElement<? extends BasePropertyType>> evProps =
               ev.getProperties().getBasePropertyOrTzid();
 
+      final String uidVal = config.getUidPrefix() + "-" + osev.getId();
       final UidPropType uid = new UidPropType();
-      uid.setText(config.getUidPrefix() + "-" + osev.getId());
+      uid.setText(uidVal);
       evProps.add(of.createUid(uid));
 
+      /* Stable values - they only change when the content does */
+      final ItemStamp st = cv.stamp(uidVal, osev);
+
       final DtstampPropType dtstamp = new DtstampPropType();
-      try {
-        //Get todays date
-        final ZonedDateTime today = ZonedDateTime.now(ZoneOffset.UTC);
-        final String todayStr = today.format(DateTimeFormatter.ISO_INSTANT);
-
-        dtstamp.setUtcDateTime(XcalUtil.getXMlUTCCal(todayStr));
-        evProps.add(of.createDtstamp(dtstamp));
-
-        final CreatedPropType created = new CreatedPropType();
-        created.setUtcDateTime(XcalUtil.getXMlUTCCal(todayStr));
-        evProps.add(of.createCreated(created));
-
-        final SummaryPropType sum = new SummaryPropType();
-        sum.setText(osev.getName());
-        evProps.add(of.createSummary(sum));
-
-        final DescriptionPropType desc = new DescriptionPropType();
-        desc.setText(osev.getDescription());
-        evProps.add(of.createDescription(desc));
-
-        final LocationPropType l = new LocationPropType();
-        l .setText(osev.getLocation());
-        evProps.add(of.createLocation(l));
-
-        if (info.getLocationKey() != null) {
-          final XBedeworkLocKeyParamType par =
-                  of.createXBedeworkLocKeyParamType();
-
-          par.setText(info.getLocationKey());
-          l.setParameters(new ArrayOfParameters());
-          l.getParameters().getBaseParameter().
-                  add(of.createXBedeworkLocKey(par));
-        }
-      } catch (final Throwable t) {
-        error(t);
-        continue;
-      }
+      dtstamp.setUtcDateTime(cv.getUtc(st.getLastModified()));
+      evProps.add(of.createDtstamp(dtstamp));
+
+      final CreatedPropType created = new CreatedPropType();
+      created.setUtcDateTime(cv.getUtc(st.getCreated()));
+      evProps.add(of.createCreated(created));
+
+      final LastModifiedPropType lastmod = new LastModifiedPropType();
+      lastmod.setUtcDateTime(cv.getUtc(st.getLastModified()));
+      evProps.add(of.createLastModified(lastmod));
+
+      final SummaryPropType sum = new SummaryPropType();
+      sum.setText(osev.getName());
+      evProps.add(of.createSummary(sum));
+
+      final DescriptionPropType desc = new DescriptionPropType();
+      desc.setText(osev.getDescription());
+      evProps.add(of.createDescription(desc));
+
+      final LocationPropType l = new LocationPropType();
+      l.setText(osev.getLocation());
+      l.setParameters(cv.getLocationParameters());
+      evProps.add(of.createLocation(l));
 
       if (osev.getCategory() != null) {
         final CategoriesPropType cat = new CategoriesPropType();
@@ -247,12 +271,12 @@ public class OrgSyncV2ConnectorInstance
       for (final OrgSyncV2Occurrence occ: osev.getOccurrences()) {
         if (first) {
           final DtstartPropType dtstart =
-                  (DtstartPropType)makeDt(new DtstartPropType(),
+                  (DtstartPropType)cv.makeDt(new DtstartPropType(),
                                           occ.getStartsAt());
           evProps.add(of.createDtstart(dtstart));
 
           final DtendPropType dtend =
-                  (DtendPropType)makeDt(new DtendPropType(),
+                  (DtendPropType)cv.makeDt(new DtendPropType(),
                                         occ.getEndsAt());
           evProps.add(of.createDtend(dtend));
 
@@ -263,7 +287,7 @@ public class OrgSyncV2ConnectorInstance
         // Add an rdate
         // TODO - add duration if different from the master
         final RdatePropType rdate =
-                (RdatePropType)makeDt(new RdatePropType(),
+                (RdatePropType)cv.makeDt(new RdatePropType(),
                                       occ.getStartsAt());
         evProps.add(of.createRdate(rdate));
       }
@@ -271,25 +295,4 @@ public class OrgSyncV2ConnectorInstance
 
     return ical;
   }
-
-  private DateDatetimePropertyType makeDt(final DateDatetimePropertyType dt,
-                                          final String val) {
-    try {
-      final DatatypeFactory dtf = DatatypeFactory.newInstance();
-
-      final XMLGregorianCalendar xgc =
-              dtf.newXMLGregorianCalendar(val);
-      if (val.length() == 10) {
-        dt.setDate(xgc);
-        return dt;
-      }
-
-
-      dt.setDateTime(xgc);
-      return dt;
-    } catch (final DatatypeConfigurationException dce) {
-      error(dce);
-      return null;
-    }
-  }
 }
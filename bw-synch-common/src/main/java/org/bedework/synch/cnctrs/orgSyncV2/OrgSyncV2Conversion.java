@@ -0,0 +1,260 @@
+/* ********************************************************************
+    Licensed to Jasig under one or more contributor license
+    agreements. See the NOTICE file distributed with this work
+    for additional information regarding copyright ownership.
+    Jasig licenses this file to you under the Apache License,
+    Version 2.0 (the "License"); you may not use this file
+    except in compliance with the License. You may obtain a
+    copy of the License at:
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on
+    an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied. See the License for the
+    specific language governing permissions and limitations
+    under the License.
+*/
+package org.bedework.synch.cnctrs.orgSyncV2;
+
+import org.bedework.synch.shared.ItemStamp;
+import org.bedework.synch.shared.exception.SynchException;
+import org.bedework.util.calendar.XcalUtil;
+
+import ietf.params.xml.ns.icalendar_2.ArrayOfParameters;
+import ietf.params.xml.ns.icalendar_2.DateDatetimePropertyType;
+import ietf.params.xml.ns.icalendar_2.ObjectFactory;
+import ietf.params.xml.ns.icalendar_2.XBedeworkLocKeyParamType;
+import jakarta.xml.bind.JAXBElement;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.datatype.DatatypeConfigurationException;
+import javax.xml.datatype.DatatypeFactory;
+import javax.xml.datatype.XMLGregorianCalendar;
+
+/** State for one OrgSync feed conversion: the location key parameter
+ * shared by every event and the stamps giving each event a stable
+ * lastmod.
+ *
+ * <p>OrgSync gives us no change information so each event is
+ * fingerprinted from the content we convert. The lastmod only moves
+ * on when the fingerprint changes - unchanged events look the same on
+ * every poll and the engine can skip them when it trusts lastmods.
+ *
+ * <p>The values are shared between the generated properties - nothing
+ * modifies a property value in place.
+ *
+ * @author Mike Douglass
+ */
+class OrgSyncV2Conversion {
+  /* Getting a factory is a service lookup. The JDK implementation
+   * holds no state so one is shared.
+   */
+  private static final DatatypeFactory dtf;
+
+  static {
+    try {
+      dtf = DatatypeFactory.newInstance();
+    } catch (final DatatypeConfigurationException dce) {
+      throw new RuntimeException(dce);
+    }
+  }
+
+  private final JAXBElement<XBedeworkLocKeyParamType> locKey;
+
+  private final String locationKey;
+
+  private final String subscriptionId;
+
+  /* Whole seconds - the value has to survive the trip through
+   * LAST-MODIFIED unchanged.
+   */
+  private final long now;
+
+  private final MessageDigest digest;
+
+  /* Stamps from the last conversion not yet seen in this one */
+  private final Map<String, ItemStamp> stamps = new HashMap<>();
+
+  private final Map<String, ItemStamp> seen = new HashMap<>();
+
+  private final Map<String, ItemStamp> changed = new HashMap<>();
+
+  /* Many events share a lastmod */
+  private final Map<Long, XMLGregorianCalendar> utcCals =
+          new HashMap<>();
+
+  /**
+   * @param of for the location key parameter
+   * @param locationKey from the subscription - may be null
+   * @param subscriptionId of the subscription
+   * @param stamps from the last conversion
+   */
+  OrgSyncV2Conversion(final ObjectFactory of,
+                      final String locationKey,
+                      final String subscriptionId,
+                      final List<ItemStamp> stamps) {
+    this.locationKey = locationKey;
+    this.subscriptionId = subscriptionId;
+    now = (System.currentTimeMillis() / 1000) * 1000;
+
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (final NoSuchAlgorithmException nsae) {
+      throw new SynchException(nsae);
+    }
+
+    for (final ItemStamp st: stamps) {
+      this.stamps.put(st.getUid(), st);
+    }
+
+    if (locationKey == null) {
+      locKey = null;
+    } else {
+      final XBedeworkLocKeyParamType par =
+              of.createXBedeworkLocKeyParamType();
+
+      par.setText(locationKey);
+      locKey = of.createXBedeworkLocKey(par);
+    }
+  }
+
+  /** Fingerprint the event and find or create its stamp. A new or
+   * changed event is stamped as modified now.
+   *
+   * @param uid of the converted event
+   * @param osev the event
+   * @return the stamp for the event
+   */
+  ItemStamp stamp(final String uid,
+                  final OrgSyncV2Event osev) {
+    final String fp = fingerprint(osev);
+
+    // Repeated in the feed - the last one wins
+    ItemStamp st = seen.get(uid);
+
+    if (st == null) {
+      st = stamps.remove(uid);
+    }
+
+    if (st == null) {
+      st = new ItemStamp(subscriptionId, uid, fp, now);
+      changed.put(uid, st);
+    } else if (!fp.equals(st.getFingerprint())) {
+      st.setFingerprint(fp);
+      st.setLastModified(now);
+      changed.put(uid, st);
+    }
+
+    seen.put(uid, st);
+
+    return st;
+  }
+
+  /**
+   * @return stamps which are new or changed in this conversion
+   */
+  List<ItemStamp> getChanged() {
+    return new ArrayList<>(changed.values());
+  }
+
+  /**
+   * @return stamps for events no longer in the feed
+   */
+  List<ItemStamp> getGone() {
+    return new ArrayList<>(stamps.values());
+  }
+
+  /**
+   * @param millis UTC
+   * @return value for a UTC date-time property
+   */
+  XMLGregorianCalendar getUtc(final long millis) {
+    return utcCals.computeIfAbsent(millis, m -> {
+      try {
+        return XcalUtil.getXMlUTCCal(new Date(m));
+      } catch (final Throwable t) {
+        throw new SynchException(t);
+      }
+    });
+  }
+
+  /**
+   * @return parameters for a location or null for none
+   */
+  ArrayOfParameters getLocationParameters() {
+    if (locKey == null) {
+      return null;
+    }
+
+    final ArrayOfParameters pars = new ArrayOfParameters();
+    pars.getBaseParameter().add(locKey);
+
+    return pars;
+  }
+
+  /**
+   * @param dt property to set
+   * @param val date (10 characters) or date-time
+   * @return the property
+   */
+  DateDatetimePropertyType makeDt(final DateDatetimePropertyType dt,
+                                  final String val) {
+    final XMLGregorianCalendar xgc = dtf.newXMLGregorianCalendar(val);
+
+    if (val.length() == 10) {
+      dt.setDate(xgc);
+      return dt;
+    }
+
+    dt.setDateTime(xgc);
+    return dt;
+  }
+
+  /* Digest of everything we convert. Each value is terminated so
+   * adjacent values can't run into each other.
+   */
+  private String fingerprint(final OrgSyncV2Event osev) {
+    digest.reset();
+
+    update(osev.getName());
+    update(osev.getDescription());
+    update(osev.getLocation());
+    update(locationKey);
+
+    if (osev.getCategory() == null) {
+      update(null);
+    } else {
+      update(osev.getCategory().getName());
+    }
+
+    if (osev.getOccurrences() != null) {
+      for (final OrgSyncV2Occurrence occ: osev.getOccurrences()) {
+        update(occ.getStartsAt());
+        update(occ.getEndsAt());
+      }
+    }
+
+    return Base64.getEncoder().encodeToString(digest.digest());
+  }
+
+  private void update(final String val) {
+    if (val == null) {
+      digest.update((byte)1);
+    } else {
+      digest.update(val.getBytes(StandardCharsets.UTF_8));
+    }
+
+    digest.update((byte)0);
+  }
+}
@@ -0,0 +1,220 @@
+/* ********************************************************************
+    Licensed to Jasig under one or more contributor license
+    agreements. See the NOTICE file distributed with this work
+    for additional information regarding copyright ownership.
+    Jasig licenses this file to you under the Apache License,
+    Version 2.0 (the "License"); you may not use this file
+    except in compliance with the License. You may obtain a
+    copy of the License at:
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on
+    an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied. See the License for the
+    specific language governing permissions and limitations
+    under the License.
+*/
+package org.bedework.synch.cnctrs.orgSyncV2;
+
+import org.bedework.synch.shared.exception.SynchException;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Reads an OrgSync V2 event list one event at a time with the Jackson
+ * streaming parser, so only the event being converted is held.
+ *
+ * <p>Fields the conversion does not use are skipped without being
+ * decoded. When only public events are wanted the rest of a
+ * non-public event is skipped as soon as is_public is seen.
+ *
+ * <p>Not thread safe.
+ *
+ * @author Mike Douglass
+ */
+class OrgSyncV2Reader implements AutoCloseable {
+  /* Thread safe once configured */
+  private static final JsonFactory jsonFactory = new JsonFactory();
+
+  private final JsonParser parser;
+
+  private final boolean onlyPublic;
+
+  private boolean started;
+
+  /**
+   * @param is the feed
+   * @param onlyPublic true to skip non-public events
+   */
+  OrgSyncV2Reader(final InputStream is,
+                  final boolean onlyPublic) {
+    try {
+      parser = jsonFactory.createParser(is);
+    } catch (final IOException ie) {
+      throw new SynchException(ie);
+    }
+
+    this.onlyPublic = onlyPublic;
+  }
+
+  /**
+   * @return the next event or null at the end
+   */
+  OrgSyncV2Event next() {
+    try {
+      if (!started) {
+        started = true;
+
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+          throw new SynchException("Expected an array of events");
+        }
+      }
+
+      while (true) {
+        final JsonToken t = parser.nextToken();
+
+        if ((t == null) || (t == JsonToken.END_ARRAY)) {
+          return null;
+        }
+
+        if (t != JsonToken.START_OBJECT) {
+          parser.skipChildren();
+          continue;
+        }
+
+        final OrgSyncV2Event ev = readEvent();
+        if (ev != null) {
+          return ev;
+        }
+      }
+    } catch (final SynchException se) {
+      throw se;
+    } catch (final Throwable t) {
+      throw new SynchException(t);
+    }
+  }
+
+  @Override
+  public void close() {
+    try {
+      parser.close();
+    } catch (final IOException ie) {
+      throw new SynchException(ie);
+    }
+  }
+
+  /* ==============================================================
+   *                   Private methods
+   * ============================================================== */
+
+  /* Positioned on the start of the event. Returns null if skipped. */
+  private OrgSyncV2Event readEvent() throws IOException {
+    final OrgSyncV2Event ev = new OrgSyncV2Event();
+
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      final String name = parser.currentName();
+      parser.nextToken();
+
+      switch (name) {
+        case "id" -> ev.setId(parser.getValueAsInt());
+        case "is_public" -> {
+          ev.setIsPublic(parser.getValueAsBoolean());
+
+          if (onlyPublic && !ev.getIsPublic()) {
+            skipRest();
+            return null;
+          }
+        }
+        case "name" -> ev.setName(parser.getValueAsString());
+        case "location" -> ev.setLocation(parser.getValueAsString());
+        case "description" -> ev.setDescription(parser.getValueAsString());
+        case "category" -> ev.setCategory(readCategory());
+        case "occurrences" -> ev.setOccurrences(readOccurrences());
+        default -> parser.skipChildren();
+      }
+    }
+
+    if (onlyPublic && !ev.getIsPublic()) {
+      // No is_public field
+      return null;
+    }
+
+    return ev;
+  }
+
+  private OrgSyncV2Category readCategory() throws IOException {
+    if (parser.currentToken() != JsonToken.START_OBJECT) {
+      parser.skipChildren();
+      return null;
+    }
+
+    final OrgSyncV2Category cat = new OrgSyncV2Category();
+
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      final String name = parser.currentName();
+      parser.nextToken();
+
+      switch (name) {
+        case "id" -> cat.setId(parser.getValueAsInt());
+        case "name" -> cat.setName(parser.getValueAsString());
+        default -> parser.skipChildren();
+      }
+    }
+
+    return cat;
+  }
+
+  private List<OrgSyncV2Occurrence> readOccurrences() throws IOException {
+    if (parser.currentToken() != JsonToken.START_ARRAY) {
+      parser.skipChildren();
+      return null;
+    }
+
+    final List<OrgSyncV2Occurrence> occs = new ArrayList<>(1);
+
+    while (true) {
+      final JsonToken t = parser.nextToken();
+
+      if ((t == null) || (t == JsonToken.END_ARRAY)) {
+        return occs;
+      }
+
+      if (t != JsonToken.START_OBJECT) {
+        parser.skipChildren();
+        continue;
+      }
+
+      final OrgSyncV2Occurrence occ = new OrgSyncV2Occurrence();
+
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        final String name = parser.currentName();
+        parser.nextToken();
+
+        switch (name) {
+          case "starts_at" -> occ.setStartsAt(parser.getValueAsString());
+          case "ends_at" -> occ.setEndsAt(parser.getValueAsString());
+          case "is_all_day" -> occ.setAllDay(parser.getValueAsBoolean());
+          default -> parser.skipChildren();
+        }
+      }
+
+      occs.add(occ);
+    }
+  }
+
+  /* Skip the remaining fields of the current object */
+  private void skipRest() throws IOException {
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      parser.nextToken();
+      parser.skipChildren();
+    }
+  }
+}
@@ -41,6 +41,30 @@ public class SynchConfig extends OrmConfigBase<SynchConfig> {
   /* How often we retry when a target is missing */
   private int missingTargetRetries;
 
+  /* Number of subscriptions loaded per page at startup */
+  private int startupPageSize;
+
+  /* millisecs change notifications are held for coalescing */
+  private int changeCoalesceWindow;
+
+  /* changes held per subscription before a resynch replaces them */
+  private int maxPendingChanges;
+
+  /* Resynchs with more changes than this are checkpointed */
+  private int checkpointThreshold;
+
+  /* seconds a cluster node lease lasts - 0 for a single node */
+  private int clusterLeaseSeconds;
+
+  /* seconds of clock difference allowed between cluster nodes */
+  private int clusterClockSkewSeconds;
+
+  /* how long decrypted credentials are cached */
+  private int credentialCacheSeconds;
+
+  /* log 1 in this many resynchs */
+  private int resynchTraceSample;
+
   /* web service push callback uri - null for no service */
   private String callbackURI;
 
@@ -104,6 +128,132 @@ public class SynchConfig extends OrmConfigBase<SynchConfig> {
     return missingTargetRetries;
   }
 
+  /**
+   *
+   * @param val number of subscriptions loaded per page at startup
+   */
+  public void setStartupPageSize(final int val) {
+    startupPageSize = val;
+  }
+
+  /**
+   * @return number of subscriptions loaded per page at startup
+   */
+  public int getStartupPageSize() {
+    return startupPageSize;
+  }
+
+  /**
+   *
+   * @param val millisecs change notifications are held for coalescing
+   */
+  public void setChangeCoalesceWindow(final int val) {
+    changeCoalesceWindow = val;
+  }
+
+  /**
+   * @return millisecs change notifications are held for coalescing
+   */
+  public int getChangeCoalesceWindow() {
+    return changeCoalesceWindow;
+  }
+
+  /**
+   *
+   * @param val number of item changes held for a subscription before
+   *        a full resynch replaces them - 0 for the default
+   */
+  public void setMaxPendingChanges(final int val) {
+    maxPendingChanges = val;
+  }
+
+  /**
+   * @return number of item changes held for a subscription before
+   *        a full resynch replaces them - 0 for the default
+   */
+  public int getMaxPendingChanges() {
+    return maxPendingChanges;
+  }
+
+  /**
+   *
+   * @param val number of changes above which resynch progress is
+   *        checkpointed - 0 for the default, negative for never
+   */
+  public void setCheckpointThreshold(final int val) {
+    checkpointThreshold = val;
+  }
+
+  /**
+   * @return number of changes above which resynch progress is
+   *        checkpointed - 0 for the default, negative for never
+   */
+  public int getCheckpointThreshold() {
+    return checkpointThreshold;
+  }
+
+  /**
+   *
+   * @param val seconds a node's cluster lease lasts - 0 to run as a single node
+   */
+  public void setClusterLeaseSeconds(final int val) {
+    clusterLeaseSeconds = val;
+  }
+
+  /**
+   * @return seconds a node's cluster lease lasts - 0 to run as a single node
+   */
+  public int getClusterLeaseSeconds() {
+    return clusterLeaseSeconds;
+  }
+
+  /**
+   *
+   * @param val seconds of clock difference allowed between cluster
+   *        nodes - 0 for the default, negative for none
+   */
+  public void setClusterClockSkewSeconds(final int val) {
+    clusterClockSkewSeconds = val;
+  }
+
+  /**
+   * @return seconds of clock difference allowed between cluster
+   *        nodes - 0 for the default, negative for none
+   */
+  public int getClusterClockSkewSeconds() {
+    return clusterClockSkewSeconds;
+  }
+
+  /**
+   *
+   * @param val how long decrypted credentials are cached - seconds
+   */
+  public void setCredentialCacheSeconds(final int val) {
+    credentialCacheSeconds = val;
+  }
+
+  /**
+   * @return how long decrypted credentials are cached - seconds
+   */
+  public int getCredentialCacheSeconds() {
+    return credentialCacheSeconds;
+  }
+
+  /**
+   *
+   * @param val log 1 in this many resynchs - 0 for none
+   */
+  public void setResynchTraceSample(final int val) {
+    resynchTraceSample = val;
+  }
+
+  /**
+   * @return log 1 in this many resynchs - 0 for none
+   */
+  public int getResynchTraceSample() {
+    return resynchTraceSample;
+  }
+
   /** web service push callback uri - null for no service
    *
    * @param val    String
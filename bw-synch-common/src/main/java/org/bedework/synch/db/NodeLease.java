@@ -0,0 +1,103 @@
+/* ********************************************************************
+    Licensed to Jasig under one or more contributor license
+    agreements. See the NOTICE file distributed with this work
+    for additional information regarding copyright ownership.
+    Jasig licenses this file to you under the Apache License,
+    Version 2.0 (the "License"); you may not use this file
+    except in compliance with the License. You may obtain a
+    copy of the License at:
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on
+    an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied. See the License for the
+    specific language governing permissions and limitations
+    under the License.
+*/
+package org.bedework.synch.db;
+
+import org.bedework.base.ToString;
+
+import java.io.Serializable;
+
+/** A cluster node's lease. Each node renews its own lease and treats
+ * the nodes with unexpired leases as the live members of the cluster.
+ *
+ * @author Mike Douglass
+ */
+public class NodeLease implements Serializable {
+  // hibernate
+  private Long id;
+
+  private String nodeId;
+
+  private long expires;
+
+  /** null constructor for hibernate
+   *
+   */
+  public NodeLease() {
+  }
+
+  /**
+   * @param nodeId unique id of the node
+   * @param expires millis
+   */
+  public NodeLease(final String nodeId,
+                   final long expires) {
+    this.nodeId = nodeId;
+    this.expires = expires;
+  }
+
+  /**
+   * @param val id
+   */
+  public void setId(final Long val) {
+    id = val;
+  }
+
+  /**
+   * @return Long id
+   */
+  public Long getId() {
+    return id;
+  }
+
+  /**
+   * @param val unique id of the node
+   */
+  public void setNodeId(final String val) {
+    nodeId = val;
+  }
+
+  /**
+   * @return unique id of the node
+   */
+  public String getNodeId() {
+    return nodeId;
+  }
+
+  /**
+   * @param val millis when the lease expires
+   */
+  public void setExpires(final long val) {
+    expires = val;
+  }
+
+  /**
+   * @return millis when the lease expires
+   */
+  public long getExpires() {
+    return expires;
+  }
+
+  @Override
+  public String toString() {
+    return new ToString(this).append("id", getId())
+                             .append("nodeId", getNodeId())
+                             .append("expires", getExpires())
+                             .toString();
+  }
+}
@@ -24,7 +24,6 @@ import org.bedework.synch.shared.Subscription;
 import org.bedework.synch.shared.SubscriptionConnectorInfo;
 import org.bedework.synch.shared.SubscriptionInfo;
 import org.bedework.synch.shared.cnctrs.Connector;
-import org.bedework.synch.shared.cnctrs.ConnectorInstance;
 import org.bedework.synch.shared.exception.SynchException;
 import org.bedework.synch.wsmessages.SynchDirectionType;
 import org.bedework.synch.wsmessages.SynchMasterType;
@@ -111,10 +110,6 @@ public class SubscriptionImpl extends DbItem<SubscriptionImpl>
 
   private Connector endBConn;
 
-  private ConnectorInstance endAConnInst;
-
-  private ConnectorInstance endBConnInst;
-
   /** null constructor for hibernate
    *
    */
@@ -351,34 +346,6 @@ public class SubscriptionImpl extends DbItem<SubscriptionImpl>
     return endBConn;
   }
 
-  /**
-   * @param val a connection instance
-   */
-  public void setEndAConnInst(final ConnectorInstance val) {
-    endAConnInst = val;
-  }
-
-  /**
-   * @return a connection instance or null
-   */
-  public ConnectorInstance getEndAConnInst() {
-    return endAConnInst;
-  }
-
-  /**
-   * @param val a connection instance
-   */
-  public void setEndBConnInst(final ConnectorInstance val) {
-    endBConnInst = val;
-  }
-
-  /**
-   * @return a connection instance or null
-   */
-  public ConnectorInstance getEndBConnInst() {
-    return endBConnInst;
-  }
-
   /**
    * @return true if any connector info changed
    */
@@ -500,8 +467,6 @@ public class SubscriptionImpl extends DbItem<SubscriptionImpl>
     val.setDeleted(getDeleted());
     val.setEndAConn(getEndAConn());
     val.setEndBConn(getEndBConn());
-    val.setEndAConnInst(getEndAConnInst());
-    val.setEndBConnInst(getEndBConnInst());
 
     return val;
   }
@@ -23,8 +23,11 @@ import org.bedework.database.db.DbSession;
 import org.bedework.database.db.DbSessionFactoryProvider;
 import org.bedework.database.db.DbSessionFactoryProviderImpl;
 import org.bedework.synch.conf.SynchConfig;
+import org.bedework.synch.shared.ItemStamp;
+import org.bedework.synch.shared.PendingChange;
 import org.bedework.synch.shared.Subscription;
 import org.bedework.synch.shared.exception.SynchException;
+import org.bedework.synch.shared.jfr.DbTransactionEvent;
 import org.bedework.util.logging.BwLogger;
 import org.bedework.util.logging.Logged;
 
@@ -53,6 +56,9 @@ public class SynchDb implements Logged, Serializable {
    */
   protected DbSession sess;
 
+  /* Only while a flight recording is on */
+  private transient DbTransactionEvent txEvent;
+
   /**
    * @param config the configuration
    *
@@ -69,6 +75,12 @@ public class SynchDb implements Logged, Serializable {
       return false;
     }
 
+    final DbTransactionEvent ev = new DbTransactionEvent();
+    if (ev.isEnabled()) {
+      ev.begin();
+      txEvent = ev;
+    }
+
     openSession();
     open = true;
     return true;
@@ -87,6 +99,9 @@ public class SynchDb implements Logged, Serializable {
     try {
       endTransaction();
     } catch (final SynchException wde) {
+      if (txEvent != null) {
+        txEvent.rolledBack = true;
+      }
       try {
         rollbackTransaction();
       } catch (final SynchException ignored) {}
@@ -96,6 +111,11 @@ public class SynchDb implements Logged, Serializable {
         closeSession();
       } catch (final SynchException ignored) {}
       open = false;
+
+      if (txEvent != null) {
+        txEvent.commit();
+        txEvent = null;
+      }
     }
   }
 
@@ -119,6 +139,69 @@ public class SynchDb implements Logged, Serializable {
     }
   }
 
+  private static final String getFirstPageQuery =
+          "select sub from SubscriptionImpl sub " +
+                  "order by sub.subscriptionId";
+
+  private static final String getPageQuery =
+          "select sub from SubscriptionImpl sub " +
+                  "where sub.subscriptionId>:lastid " +
+                  "order by sub.subscriptionId";
+
+  /** Get a page of subscriptions ordered by subscription id. Pages
+   * are keyed on the last id seen rather than an offset so that each
+   * call is an index range scan however far into the table we are.
+   *
+   * @param lastId the last subscription id from the previous page or
+   *               null for the first page
+   * @param pageSize max number to return
+   * @return list of subscriptions - empty when there are no more
+   */
+  public List<Subscription> getPage(final String lastId,
+                                    final int pageSize) {
+    try {
+      final DbSession q;
+
+      if (lastId == null) {
+        q = createQuery(getFirstPageQuery);
+      } else {
+        q = createQuery(getPageQuery)
+                .setString("lastid", lastId);
+      }
+
+      //noinspection unchecked
+      return (List<Subscription>)q.setMaxResults(pageSize)
+                                  .getList();
+    } catch (final BedeworkException e) {
+      throw new SynchException(e);
+    }
+  }
+
+  private static final String getNewerQuery =
+          "select sub from SubscriptionImpl sub " +
+                  "where sub.id>:lastid " +
+                  "order by sub.id";
+
+  /** Get subscriptions added since we last looked. Ids are generated
+   * in increasing order.
+   *
+   * @param lastId the highest id already seen
+   * @param max number to return
+   * @return list of subscriptions ordered by id - empty for none
+   */
+  public List<Subscription> getNewer(final long lastId,
+                                     final int max) {
+    try {
+      //noinspection unchecked
+      return (List<Subscription>)createQuery(getNewerQuery)
+              .setLong("lastid", lastId)
+              .setMaxResults(max)
+              .getList();
+    } catch (final BedeworkException e) {
+      throw new SynchException(e);
+    }
+  }
+
   private static final String getSubQuery =
           "select sub from SubscriptionImpl sub " +
                   "where sub.subscriptionId=:subid";
@@ -221,6 +304,173 @@ public class SynchDb implements Logged, Serializable {
     }
   }
 
+  /* ==============================================================
+   *                   Change log methods
+   * ============================================================== */
+
+  private static final String getChangesQuery =
+          "select pc from PendingChange pc " +
+                  "where pc.subscriptionId=:subid " +
+                  "order by pc.id";
+
+  /** Get the changes an interrupted resynch still has to make, in the
+   * order they were recorded.
+   *
+   * @param subscriptionId of the subscription
+   * @return list of changes - empty for none
+   */
+  public List<PendingChange> getPendingChanges(final String subscriptionId) {
+    try {
+      //noinspection unchecked
+      return (List<PendingChange>)createQuery(getChangesQuery)
+              .setString("subid", subscriptionId)
+              .getList();
+    } catch (final BedeworkException e) {
+      throw new SynchException(e);
+    }
+  }
+
+  /** Record changes to be made.
+   *
+   * @param changes to add
+   */
+  public void addPendingChanges(final List<PendingChange> changes) {
+    try {
+      for (final PendingChange pc: changes) {
+        sess.add(pc);
+      }
+    } catch (final BedeworkException e) {
+      throw new SynchException(e);
+    }
+  }
+
+  /** Remove changes which have been made.
+   *
+   * @param changes to remove
+   */
+  public void deletePendingChanges(final List<PendingChange> changes) {
+    try {
+      for (final PendingChange pc: changes) {
+        sess.delete(pc);
+      }
+    } catch (final BedeworkException e) {
+      throw new SynchException(e);
+    }
+  }
+
+  /* ==============================================================
+   *                   Item stamp methods
+   * ============================================================== */
+
+  private static final String getStampsQuery =
+          "select st from ItemStamp st " +
+                  "where st.subscriptionId=:subid";
+
+  /**
+   * @param subscriptionId of the subscription
+   * @return stamps for the items last seen - empty for none
+   */
+  public List<ItemStamp> getItemStamps(final String subscriptionId) {
+    try {
+      //noinspection unchecked
+      return (List<ItemStamp>)createQuery(getStampsQuery)
+              .setString("subid", subscriptionId)
+              .getList();
+    } catch (final BedeworkException e) {
+      throw new SynchException(e);
+    }
+  }
+
+  /** Add new stamps and update changed ones.
+   *
+   * @param stamps to save
+   */
+  public void saveItemStamps(final List<ItemStamp> stamps) {
+    try {
+      for (final ItemStamp st: stamps) {
+        if (st.getId() == null) {
+          sess.add(st);
+        } else {
+          sess.update(st);
+        }
+      }
+    } catch (final BedeworkException e) {
+      throw new SynchException(e);
+    }
+  }
+
+  /**
+   * @param stamps to remove
+   */
+  public void deleteItemStamps(final List<ItemStamp> stamps) {
+    try {
+      for (final ItemStamp st: stamps) {
+        sess.delete(st);
+      }
+    } catch (final BedeworkException e) {
+      throw new SynchException(e);
+    }
+  }
+
+  /* ==============================================================
+   *                   Cluster lease methods
+   * ============================================================== */
+
+  private static final String getLeasesQuery =
+          "select nl from NodeLease nl";
+
+  /**
+   * @return all leases - live and expired
+   */
+  public List<NodeLease> getLeases() {
+    try {
+      //noinspection unchecked
+      return (List<NodeLease>)createQuery(getLeasesQuery)
+              .getList();
+    } catch (final BedeworkException e) {
+      throw new SynchException(e);
+    }
+  }
+
+  private static final String getLeaseQuery =
+          "select nl from NodeLease nl " +
+                  "where nl.nodeId=:nodeid";
+
+  /** Create or extend the lease for a node.
+   *
+   * @param nodeId unique id of the node
+   * @param expires millis
+   */
+  public void renewLease(final String nodeId,
+                         final long expires) {
+    try {
+      final NodeLease nl = (NodeLease)createQuery(getLeaseQuery)
+              .setString("nodeid", nodeId)
+              .getUnique();
+
+      if (nl == null) {
+        sess.add(new NodeLease(nodeId, expires));
+        return;
+      }
+
+      nl.setExpires(expires);
+      sess.update(nl);
+    } catch (final BedeworkException e) {
+      throw new SynchException(e);
+    }
+  }
+
+  /**
+   * @param nl lease to remove
+   */
+  public void deleteLease(final NodeLease nl) {
+    try {
+      sess.delete(nl);
+    } catch (final BedeworkException e) {
+      throw new SynchException(e);
+    }
+  }
+
   /* ==============================================================
    *                   Session methods
    * ============================================================== */
@@ -216,6 +216,86 @@ public class SynchConf extends ConfBase<SynchConfig> implements SynchConfMBean,
     return getConfig().getMissingTargetRetries();
   }
 
+  @Override
+  public void setStartupPageSize(final int val) {
+    getConfig().setStartupPageSize(val);
+  }
+
+  @Override
+  public int getStartupPageSize() {
+    return getConfig().getStartupPageSize();
+  }
+
+  @Override
+  public void setChangeCoalesceWindow(final int val) {
+    getConfig().setChangeCoalesceWindow(val);
+  }
+
+  @Override
+  public int getChangeCoalesceWindow() {
+    return getConfig().getChangeCoalesceWindow();
+  }
+
+  @Override
+  public void setMaxPendingChanges(final int val) {
+    getConfig().setMaxPendingChanges(val);
+  }
+
+  @Override
+  public int getMaxPendingChanges() {
+    return getConfig().getMaxPendingChanges();
+  }
+
+  @Override
+  public void setCheckpointThreshold(final int val) {
+    getConfig().setCheckpointThreshold(val);
+  }
+
+  @Override
+  public int getCheckpointThreshold() {
+    return getConfig().getCheckpointThreshold();
+  }
+
+  @Override
+  public void setClusterLeaseSeconds(final int val) {
+    getConfig().setClusterLeaseSeconds(val);
+  }
+
+  @Override
+  public int getClusterLeaseSeconds() {
+    return getConfig().getClusterLeaseSeconds();
+  }
+
+  @Override
+  public void setClusterClockSkewSeconds(final int val) {
+    getConfig().setClusterClockSkewSeconds(val);
+  }
+
+  @Override
+  public int getClusterClockSkewSeconds() {
+    return getConfig().getClusterClockSkewSeconds();
+  }
+
+  @Override
+  public void setCredentialCacheSeconds(final int val) {
+    getConfig().setCredentialCacheSeconds(val);
+  }
+
+  @Override
+  public int getCredentialCacheSeconds() {
+    return getConfig().getCredentialCacheSeconds();
+  }
+
+  @Override
+  public void setResynchTraceSample(final int val) {
+    getConfig().setResynchTraceSample(val);
+  }
+
+  @Override
+  public int getResynchTraceSample() {
+    return getConfig().getResynchTraceSample();
+  }
+
   @Override
   public void setCallbackURI(final String val) {
     getConfig().setCallbackURI(val);
@@ -326,6 +406,24 @@ public class SynchConf extends ConfBase<SynchConfig> implements SynchConfMBean,
     return syncher.getStats();
   }
 
+  @Override
+  public String getMetrics() {
+    if (syncher == null) {
+      return "";
+    }
+
+    return syncher.getMetrics().toText();
+  }
+
+  @Override
+  public List<String> getSlowestResynchs() {
+    if (syncher == null) {
+      return new ArrayList<>();
+    }
+
+    return syncher.getSlowestResynchs();
+  }
+
   /* ========================================================================
    * Operations
    * ======================================================================== */
@@ -67,6 +67,108 @@ public interface SynchConfMBean extends ConfBaseMBean {
   @MBeanInfo("How often we retry when a target is missing.")
   int getMissingTargetRetries();
 
+  /**
+   *
+   * @param val number of subscriptions loaded per page at startup
+   */
+  void setStartupPageSize(int val);
+
+  /**
+   * @return number of subscriptions loaded per page at startup
+   */
+  @MBeanInfo("Number of subscriptions loaded per page at startup.")
+  int getStartupPageSize();
+
+  /**
+   *
+   * @param val millisecs change notifications are held for coalescing
+   */
+  void setChangeCoalesceWindow(int val);
+
+  /**
+   * @return millisecs change notifications are held for coalescing
+   */
+  @MBeanInfo("Millisecs item change notifications are held so repeated changes can be coalesced.")
+  int getChangeCoalesceWindow();
+
+  /**
+   *
+   * @param val number of item changes held for a subscription before
+   *        a full resynch replaces them - 0 for the default
+   */
+  void setMaxPendingChanges(int val);
+
+  /**
+   * @return number of item changes held for a subscription before
+   *        a full resynch replaces them - 0 for the default
+   */
+  @MBeanInfo("Item changes held for coalescing for one subscription before they are all replaced by a single full resynch. 0 for the default.")
+  int getMaxPendingChanges();
+
+  /**
+   *
+   * @param val number of changes above which resynch progress is
+   *        checkpointed - 0 for the default, negative for never
+   */
+  void setCheckpointThreshold(int val);
+
+  /**
+   * @return number of changes above which resynch progress is
+   *        checkpointed - 0 for the default, negative for never
+   */
+  @MBeanInfo("Resynchs with more pending changes than this are checkpointed so they can resume after a failure or restart. 0 for the default, negative to disable.")
+  int getCheckpointThreshold();
+
+  /**
+   *
+   * @param val seconds a node's cluster lease lasts - 0 to run as a single node
+   */
+  void setClusterLeaseSeconds(int val);
+
+  /**
+   * @return seconds a node's cluster lease lasts - 0 to run as a single node
+   */
+  @MBeanInfo("Seconds a node's lease in the cluster table lasts. Nodes renew at a third of this and share subscriptions between live nodes. 0 to run as a single node.")
+  int getClusterLeaseSeconds();
+
+  /**
+   *
+   * @param val seconds of clock difference allowed between cluster
+   *        nodes - 0 for the default, negative for none
+   */
+  void setClusterClockSkewSeconds(int val);
+
+  /**
+   * @return seconds of clock difference allowed between cluster
+   *        nodes - 0 for the default, negative for none
+   */
+  @MBeanInfo("Seconds of clock difference allowed between cluster nodes. Lease expiry is set from each node's own clock, so another node's lease is only treated as expired this long after its expiry. 0 for the default of 30 seconds, negative for none.")
+  int getClusterClockSkewSeconds();
+
+  /**
+   *
+   * @param val how long decrypted credentials are cached - seconds
+   */
+  void setCredentialCacheSeconds(int val);
+
+  /**
+   * @return how long decrypted credentials are cached - seconds
+   */
+  @MBeanInfo("Seconds a decrypted subscription credential is kept in memory. 0 for the default, negative to decrypt on every use.")
+  int getCredentialCacheSeconds();
+
+  /**
+   *
+   * @param val log 1 in this many resynchs - 0 for none
+   */
+  void setResynchTraceSample(int val);
+
+  /**
+   * @return log 1 in this many resynchs - 0 for none
+   */
+  @MBeanInfo("Log the phase timings of 1 in this many resynchs. 0 for none. May be changed while running.")
+  int getResynchTraceSample();
+
   /** web service push callback uri - null for no service
    *
    * @param val    String
@@ -159,6 +261,22 @@ public interface SynchConfMBean extends ConfBaseMBean {
   @MBeanInfo("Get the current stats.")
   List<Stat> getStats();
 
+  /** Get the current metrics as text
+   *
+   * @return one "name value" line per metric
+   */
+  @MBeanInfo("Get the current metrics - counters, gauges and latency " +
+          "percentiles - one per line.")
+  String getMetrics();
+
+  /** Get the slowest resynchs
+   *
+   * @return one summary per subscription, slowest first
+   */
+  @MBeanInfo("Get the slowest resynchs since starting - one per subscription, " +
+          "slowest first - with calls/millis for each phase.")
+  List<String> getSlowestResynchs();
+
   /**
    *
    * @param val Export schema to database?
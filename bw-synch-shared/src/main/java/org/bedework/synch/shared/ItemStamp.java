@@ -0,0 +1,164 @@
+/* ********************************************************************
+    Licensed to Jasig under one or more contributor license
+    agreements. See the NOTICE file distributed with this work
+    for additional information regarding copyright ownership.
+    Jasig licenses this file to you under the Apache License,
+    Version 2.0 (the "License"); you may not use this file
+    except in compliance with the License. You may obtain a
+    copy of the License at:
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on
+    an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied. See the License for the
+    specific language governing permissions and limitations
+    under the License.
+*/
+package org.bedework.synch.shared;
+
+import org.bedework.base.ToString;
+
+import java.io.Serializable;
+
+/** What a connector last saw of an item from a source which gives no
+ * change information of its own. The fingerprint is a digest of the
+ * item content - the lastmod is only moved on when it changes, so the
+ * engine can skip unchanged items when it trusts lastmods.
+ *
+ * @author Mike Douglass
+ */
+public class ItemStamp implements Serializable {
+  // hibernate
+  private Long id;
+
+  private String subscriptionId;
+
+  private String uid;
+
+  private String fingerprint;
+
+  private long created;
+
+  private long lastModified;
+
+  /** null constructor for hibernate
+   *
+   */
+  public ItemStamp() {
+  }
+
+  /** A stamp for an item seen for the first time.
+   *
+   * @param subscriptionId of the subscription
+   * @param uid of the item
+   * @param fingerprint of the content
+   * @param now millis
+   */
+  public ItemStamp(final String subscriptionId,
+                   final String uid,
+                   final String fingerprint,
+                   final long now) {
+    this.subscriptionId = subscriptionId;
+    this.uid = uid;
+    this.fingerprint = fingerprint;
+    created = now;
+    lastModified = now;
+  }
+
+  /**
+   * @param val id
+   */
+  public void setId(final Long val) {
+    id = val;
+  }
+
+  /**
+   * @return Long id
+   */
+  public Long getId() {
+    return id;
+  }
+
+  /**
+   * @param val subscription id
+   */
+  public void setSubscriptionId(final String val) {
+    subscriptionId = val;
+  }
+
+  /**
+   * @return subscription id
+   */
+  public String getSubscriptionId() {
+    return subscriptionId;
+  }
+
+  /**
+   * @param val uid of the item
+   */
+  public void setUid(final String val) {
+    uid = val;
+  }
+
+  /**
+   * @return uid of the item
+   */
+  public String getUid() {
+    return uid;
+  }
+
+  /**
+   * @param val digest of the item content
+   */
+  public void setFingerprint(final String val) {
+    fingerprint = val;
+  }
+
+  /**
+   * @return digest of the item content
+   */
+  public String getFingerprint() {
+    return fingerprint;
+  }
+
+  /**
+   * @param val millis when first seen
+   */
+  public void setCreated(final long val) {
+    created = val;
+  }
+
+  /**
+   * @return millis when first seen
+   */
+  public long getCreated() {
+    return created;
+  }
+
+  /**
+   * @param val millis when the fingerprint last changed
+   */
+  public void setLastModified(final long val) {
+    lastModified = val;
+  }
+
+  /**
+   * @return millis when the fingerprint last changed
+   */
+  public long getLastModified() {
+    return lastModified;
+  }
+
+  @Override
+  public String toString() {
+    return new ToString(this).append("id", getId())
+                             .append("subscriptionId", getSubscriptionId())
+                             .append("uid", getUid())
+                             .append("fingerprint", getFingerprint())
+                             .append("created", getCreated())
+                             .append("lastModified", getLastModified())
+                             .toString();
+  }
+}
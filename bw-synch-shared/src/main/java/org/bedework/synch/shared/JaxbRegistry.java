@@ -0,0 +1,174 @@
+/* ********************************************************************
+    Licensed to Jasig under one or more contributor license
+    agreements. See the NOTICE file distributed with this work
+    for additional information regarding copyright ownership.
+    Jasig licenses this file to you under the Apache License,
+    Version 2.0 (the "License"); you may not use this file
+    except in compliance with the License. You may obtain a
+    copy of the License at:
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on
+    an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied. See the License for the
+    specific language governing permissions and limitations
+    under the License.
+*/
+package org.bedework.synch.shared;
+
+import org.bedework.synch.shared.exception.SynchException;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.Marshaller;
+import jakarta.xml.bind.Unmarshaller;
+import jakarta.xml.soap.MessageFactory;
+
+/** Process wide JAXB contexts with pools of marshallers and
+ * unmarshallers, and a shared SOAP message factory.
+ *
+ * <p>Contexts are expensive to build and thread safe so one is built
+ * per context path and kept. Marshallers and unmarshallers are cheap
+ * but not thread safe - they are borrowed from a small pool and must
+ * be returned when done with.
+ *
+ * @author douglm
+ */
+public final class JaxbRegistry {
+  /** Context path for the synch web service messages */
+  public static final String synchContextPath =
+          "org.bedework.synch.wsmessages:" +
+                  "ietf.params.xml.ns.icalendar_2";
+
+  /* Pooled (un)marshallers over this are discarded */
+  private static final int maxPooled = 16;
+
+  private static class Entry {
+    final JAXBContext ctx;
+
+    final BlockingQueue<Marshaller> marshallers =
+            new ArrayBlockingQueue<>(maxPooled);
+
+    final BlockingQueue<Unmarshaller> unmarshallers =
+            new ArrayBlockingQueue<>(maxPooled);
+
+    Entry(final JAXBContext ctx) {
+      this.ctx = ctx;
+    }
+  }
+
+  private static final Map<String, Entry> entries =
+          new ConcurrentHashMap<>();
+
+  private static volatile MessageFactory soapMsgFactory;
+
+  private JaxbRegistry() {
+  }
+
+  /**
+   * @param contextPath JAXB context path
+   * @return the shared context for the path
+   */
+  public static JAXBContext getContext(final String contextPath) {
+    return getEntry(contextPath).ctx;
+  }
+
+  /** Borrow a marshaller - return it with release.
+   *
+   * @param contextPath JAXB context path
+   * @return a marshaller for the path
+   */
+  public static Marshaller getMarshaller(final String contextPath) {
+    try {
+      final Entry ent = getEntry(contextPath);
+      final Marshaller m = ent.marshallers.poll();
+
+      if (m != null) {
+        return m;
+      }
+
+      return ent.ctx.createMarshaller();
+    } catch (final SynchException se) {
+      throw se;
+    } catch (final Throwable t) {
+      throw new SynchException(t);
+    }
+  }
+
+  /** Borrow an unmarshaller - return it with release.
+   *
+   * @param contextPath JAXB context path
+   * @return an unmarshaller for the path
+   */
+  public static Unmarshaller getUnmarshaller(final String contextPath) {
+    try {
+      final Entry ent = getEntry(contextPath);
+      final Unmarshaller u = ent.unmarshallers.poll();
+
+      if (u != null) {
+        return u;
+      }
+
+      return ent.ctx.createUnmarshaller();
+    } catch (final SynchException se) {
+      throw se;
+    } catch (final Throwable t) {
+      throw new SynchException(t);
+    }
+  }
+
+  /** Return a marshaller obtained from getMarshaller
+   *
+   * @param contextPath JAXB context path
+   * @param val the marshaller
+   */
+  public static void release(final String contextPath,
+                             final Marshaller val) {
+    if (val != null) {
+      getEntry(contextPath).marshallers.offer(val);
+    }
+  }
+
+  /** Return an unmarshaller obtained from getUnmarshaller
+   *
+   * @param contextPath JAXB context path
+   * @param val the unmarshaller
+   */
+  public static void release(final String contextPath,
+                             final Unmarshaller val) {
+    if (val != null) {
+      getEntry(contextPath).unmarshallers.offer(val);
+    }
+  }
+
+  /**
+   * @return a shared SOAP message factory
+   */
+  public static MessageFactory getSoapMsgFactory() {
+    try {
+      if (soapMsgFactory == null) {
+        soapMsgFactory = MessageFactory.newInstance();
+      }
+
+      return soapMsgFactory;
+    } catch (final Throwable t) {
+      throw new SynchException(t);
+    }
+  }
+
+  private static Entry getEntry(final String contextPath) {
+    return entries.computeIfAbsent(contextPath, cp -> {
+      try {
+        return new Entry(JAXBContext.newInstance(cp));
+      } catch (final Throwable t) {
+        throw new SynchException(t);
+      }
+    });
+  }
+}
@@ -0,0 +1,312 @@
+/* ********************************************************************
+    Licensed to Jasig under one or more contributor license
+    agreements. See the NOTICE file distributed with this work
+    for additional information regarding copyright ownership.
+    Jasig licenses this file to you under the Apache License,
+    Version 2.0 (the "License"); you may not use this file
+    except in compliance with the License. You may obtain a
+    copy of the License at:
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on
+    an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied. See the License for the
+    specific language governing permissions and limitations
+    under the License.
+*/
+package org.bedework.synch.shared;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/** Named counters, gauges and histograms for the engine. Updates do
+ * not lock so may be made from any thread on the hot path.
+ *
+ * <p>Histograms use log-linear buckets - each power of 2 is split into
+ * 8 - so recorded values are accurate to about 12%.
+ *
+ * @author Mike Douglass
+ */
+public class Metrics {
+  /** A count which only goes up
+   */
+  public static class Counter {
+    private final LongAdder val = new LongAdder();
+
+    /** Add one
+     */
+    public void inc() {
+      val.increment();
+    }
+
+    /**
+     * @param n to add
+     */
+    public void add(final long n) {
+      val.add(n);
+    }
+
+    /**
+     * @return current count
+     */
+    public long get() {
+      return val.sum();
+    }
+  }
+
+  /** Distribution of recorded values - usually millisecond latencies
+   */
+  public static class Histogram {
+    /* Values below this get their own bucket */
+    private static final int linear = 16;
+
+    private static final int subBits = 3;
+
+    private static final int subBuckets = 1 << subBits;
+
+    private static final int numBuckets =
+            linear + (63 - 4) * subBuckets;
+
+    private final AtomicLongArray counts =
+            new AtomicLongArray(numBuckets);
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder total = new LongAdder();
+
+    private final LongAccumulator max =
+            new LongAccumulator(Math::max, 0);
+
+    /**
+     * @param val to record - negative values are recorded as 0
+     */
+    public void record(final long val) {
+      final long v = Math.max(val, 0);
+
+      counts.incrementAndGet(bucket(v));
+      count.increment();
+      total.add(v);
+      max.accumulate(v);
+    }
+
+    /**
+     * @return number of values recorded
+     */
+    public long getCount() {
+      return count.sum();
+    }
+
+    /**
+     * @return sum of values recorded
+     */
+    public long getTotal() {
+      return total.sum();
+    }
+
+    /**
+     * @return largest value recorded
+     */
+    public long getMax() {
+      return max.get();
+    }
+
+    /**
+     * @param fraction e.g. 0.99
+     * @return upper bound of the bucket holding that fraction of the
+     *         values - 0 if none recorded
+     */
+    public long getPercentile(final double fraction) {
+      final long n = getCount();
+      if (n == 0) {
+        return 0;
+      }
+
+      final long rank = Math.max(1, (long)Math.ceil(fraction * n));
+      long seen = 0;
+
+      for (int i = 0; i < numBuckets; i++) {
+        seen += counts.get(i);
+
+        if (seen >= rank) {
+          return Math.min(upperBound(i), getMax());
+        }
+      }
+
+      return getMax();
+    }
+
+    /**
+     * @return a copy of the current state
+     */
+    public Histogram copy() {
+      final Histogram h = new Histogram();
+
+      for (int i = 0; i < numBuckets; i++) {
+        h.counts.set(i, counts.get(i));
+      }
+
+      h.count.add(getCount());
+      h.total.add(getTotal());
+      h.max.accumulate(getMax());
+
+      return h;
+    }
+
+    /** Values recorded since a copy was taken - for measuring an
+     * interval. The max is still that of the whole history.
+     *
+     * @param earlier copy of this histogram
+     * @return a new histogram
+     */
+    public Histogram since(final Histogram earlier) {
+      final Histogram h = new Histogram();
+
+      for (int i = 0; i < numBuckets; i++) {
+        h.counts.set(i, counts.get(i) - earlier.counts.get(i));
+      }
+
+      h.count.add(getCount() - earlier.getCount());
+      h.total.add(getTotal() - earlier.getTotal());
+      h.max.accumulate(getMax());
+
+      return h;
+    }
+
+    private static int bucket(final long v) {
+      if (v < linear) {
+        return (int)v;
+      }
+
+      final int exp = 63 - Long.numberOfLeadingZeros(v);
+      final int sub = (int)(v >>> (exp - subBits)) & (subBuckets - 1);
+
+      return linear + (exp - 4) * subBuckets + sub;
+    }
+
+    private static long upperBound(final int bucket) {
+      if (bucket < linear) {
+        return bucket;
+      }
+
+      final int exp = (bucket - linear) / subBuckets + 4;
+      final int sub = (bucket - linear) % subBuckets;
+
+      return ((long)(subBuckets + sub + 1) << (exp - subBits)) - 1;
+    }
+  }
+
+  /* Sorted so the output is stable */
+  private final Map<String, Counter> counters =
+          new ConcurrentSkipListMap<>();
+
+  private final Map<String, LongSupplier> gauges =
+          new ConcurrentSkipListMap<>();
+
+  private final Map<String, Histogram> histograms =
+          new ConcurrentSkipListMap<>();
+
+  /**
+   * @param name of counter
+   * @return the counter - created if necessary
+   */
+  public Counter counter(final String name) {
+    return counters.computeIfAbsent(name, n -> new Counter());
+  }
+
+  /** Register a value which is read when the metrics are.
+   *
+   * @param name of gauge
+   * @param val supplies the current value
+   */
+  public void gauge(final String name,
+                    final LongSupplier val) {
+    gauges.put(name, val);
+  }
+
+  /**
+   * @param name of histogram
+   * @return the histogram - created if necessary
+   */
+  public Histogram histogram(final String name) {
+    return histograms.computeIfAbsent(name, n -> new Histogram());
+  }
+
+  /**
+   * @return current values as stats
+   */
+  public List<Stat> getStats() {
+    final List<Stat> stats = new ArrayList<>();
+
+    for (final var ent: counters.entrySet()) {
+      stats.add(new Stat(ent.getKey(), ent.getValue().get()));
+    }
+
+    for (final var ent: gauges.entrySet()) {
+      stats.add(new Stat(ent.getKey(), ent.getValue().getAsLong()));
+    }
+
+    for (final var ent: histograms.entrySet()) {
+      final Histogram h = ent.getValue();
+
+      stats.add(new Stat(ent.getKey(),
+                         "count=" + h.getCount() +
+                                 " p50=" + h.getPercentile(0.5) +
+                                 " p90=" + h.getPercentile(0.9) +
+                                 " p99=" + h.getPercentile(0.99) +
+                                 " max=" + h.getMax()));
+    }
+
+    return stats;
+  }
+
+  /** One "name value" line per value. Names have spaces replaced by
+   * underscores and histograms are expanded into count, total,
+   * percentiles and max.
+   *
+   * @return current values as text
+   */
+  public String toText() {
+    final StringBuilder sb = new StringBuilder();
+
+    for (final var ent: counters.entrySet()) {
+      line(sb, ent.getKey(), "", ent.getValue().get());
+    }
+
+    for (final var ent: gauges.entrySet()) {
+      line(sb, ent.getKey(), "", ent.getValue().getAsLong());
+    }
+
+    for (final var ent: histograms.entrySet()) {
+      final String name = ent.getKey();
+      final Histogram h = ent.getValue();
+
+      line(sb, name, "_count", h.getCount());
+      line(sb, name, "_total", h.getTotal());
+      line(sb, name, "_p50", h.getPercentile(0.5));
+      line(sb, name, "_p90", h.getPercentile(0.9));
+      line(sb, name, "_p99", h.getPercentile(0.99));
+      line(sb, name, "_max", h.getMax());
+    }
+
+    return sb.toString();
+  }
+
+  private static void line(final StringBuilder sb,
+                           final String name,
+                           final String suffix,
+                           final long val) {
+    sb.append(name.replace(' ', '_'))
+      .append(suffix)
+      .append(' ')
+      .append(val)
+      .append('\n');
+  }
+}
@@ -0,0 +1,187 @@
+/* ********************************************************************
+    Licensed to Jasig under one or more contributor license
+    agreements. See the NOTICE file distributed with this work
+    for additional information regarding copyright ownership.
+    Jasig licenses this file to you under the Apache License,
+    Version 2.0 (the "License"); you may not use this file
+    except in compliance with the License. You may obtain a
+    copy of the License at:
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on
+    an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied. See the License for the
+    specific language governing permissions and limitations
+    under the License.
+*/
+package org.bedework.synch.shared;
+
+import org.bedework.base.ToString;
+import org.bedework.synch.wsmessages.SynchEndType;
+
+import java.io.Serializable;
+
+/** An entry in the per-subscription change log. A large resynch
+ * records the changes it still has to make so that it can pick up
+ * where it left off after a failure or restart. Entries are removed
+ * as the changes are applied so the remaining entries are the cursor.
+ *
+ * @author Mike Douglass
+ */
+public class PendingChange implements Serializable {
+  /** What to do at the end
+   */
+  public enum Action {
+    /** Add the item */
+    add,
+
+    /** Update the item if it differs */
+    update,
+
+    /** Delete the item */
+    delete
+  }
+
+  // hibernate
+  private Long id;
+
+  private String subscriptionId;
+
+  private String end;
+
+  private String action;
+
+  private String uid;
+
+  /** null constructor for hibernate
+   *
+   */
+  public PendingChange() {
+  }
+
+  /**
+   * @param subscriptionId of the subscription
+   * @param end the end to change
+   * @param action what to do
+   * @param uid of the item
+   */
+  public PendingChange(final String subscriptionId,
+                       final SynchEndType end,
+                       final Action action,
+                       final String uid) {
+    this.subscriptionId = subscriptionId;
+    setEndEnum(end);
+    setActionEnum(action);
+    this.uid = uid;
+  }
+
+  /**
+   * @param val id
+   */
+  public void setId(final Long val) {
+    id = val;
+  }
+
+  /**
+   * @return Long id
+   */
+  public Long getId() {
+    return id;
+  }
+
+  /**
+   * @param val subscription id
+   */
+  public void setSubscriptionId(final String val) {
+    subscriptionId = val;
+  }
+
+  /**
+   * @return subscription id
+   */
+  public String getSubscriptionId() {
+    return subscriptionId;
+  }
+
+  /**
+   * @param val the end to change
+   */
+  public void setEnd(final String val) {
+    end = val;
+  }
+
+  /**
+   * @return the end to change
+   */
+  public String getEnd() {
+    return end;
+  }
+
+  /**
+   * @param val the end to change
+   */
+  public void setEndEnum(final SynchEndType val) {
+    setEnd(val.name());
+  }
+
+  /**
+   * @return the end to change
+   */
+  public SynchEndType getEndEnum() {
+    return SynchEndType.valueOf(getEnd());
+  }
+
+  /**
+   * @param val what to do
+   */
+  public void setAction(final String val) {
+    action = val;
+  }
+
+  /**
+   * @return what to do
+   */
+  public String getAction() {
+    return action;
+  }
+
+  /**
+   * @param val what to do
+   */
+  public void setActionEnum(final Action val) {
+    setAction(val.name());
+  }
+
+  /**
+   * @return what to do
+   */
+  public Action getActionEnum() {
+    return Action.valueOf(getAction());
+  }
+
+  /**
+   * @param val uid of the item
+   */
+  public void setUid(final String val) {
+    uid = val;
+  }
+
+  /**
+   * @return uid of the item
+   */
+  public String getUid() {
+    return uid;
+  }
+
+  @Override
+  public String toString() {
+    return new ToString(this).append("id", getId())
+                             .append("subscriptionId", getSubscriptionId())
+                             .append("end", getEnd())
+                             .append("action", getAction())
+                             .append("uid", getUid())
+                             .toString();
+  }
+}
@@ -0,0 +1,273 @@
+/* ********************************************************************
+    Licensed to Jasig under one or more contributor license
+    agreements. See the NOTICE file distributed with this work
+    for additional information regarding copyright ownership.
+    Jasig licenses this file to you under the Apache License,
+    Version 2.0 (the "License"); you may not use this file
+    except in compliance with the License. You may obtain a
+    copy of the License at:
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on
+    an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied. See the License for the
+    specific language governing permissions and limitations
+    under the License.
+*/
+package org.bedework.synch.shared;
+
+import org.bedework.synch.shared.jfr.ResynchPhaseEvent;
+import org.bedework.synch.wsmessages.SynchEndType;
+
+/** Where the time went in one resynch of a subscription. Connector
+ * calls are timed against the end they were made to, the rest against
+ * the engine. Each step is also a flight recorder event when recording.
+ *
+ * <p>Used by the one thread doing the resynch so not thread safe.
+ *
+ * @author Mike Douglass
+ */
+public class ResynchTimings {
+  /** What we were doing
+   */
+  public enum Phase {
+    /** Asking a connector if anything changed */
+    changed(true),
+
+    /** Listing the items at an end */
+    itemsInfo(true),
+
+    /** Fetching items */
+    fetch(true),
+
+    /** Adding, updating or deleting items */
+    write(true),
+
+    /** Running filters */
+    filter(false),
+
+    /** Comparing items */
+    diff(false),
+
+    /** Reading and writing our own tables */
+    db(false);
+
+    private final boolean connector;
+
+    Phase(final boolean connector) {
+      this.connector = connector;
+    }
+
+    /**
+     * @return true if this is a call to a connector
+     */
+    public boolean isConnector() {
+      return connector;
+    }
+  }
+
+  /* Rows for end A, end B and the engine */
+  private static final int engineRow = 2;
+
+  private static final int numPhases = Phase.values().length;
+
+  private final String subscriptionId;
+
+  private final String[] connectorIds;
+
+  private final long[][] nanos = new long[3][numPhases];
+
+  private final int[][] calls = new int[3][numPhases];
+
+  private final long started = System.nanoTime();
+
+  private final long startedMillis = System.currentTimeMillis();
+
+  private long elapsed = -1;
+
+  private int listed;
+
+  private int fetched;
+
+  private int written;
+
+  /**
+   * @param subscriptionId of subscription
+   * @param connectorIdA connector for end A
+   * @param connectorIdB connector for end B
+   */
+  public ResynchTimings(final String subscriptionId,
+                        final String connectorIdA,
+                        final String connectorIdB) {
+    this.subscriptionId = subscriptionId;
+    connectorIds = new String[]{connectorIdA, connectorIdB};
+  }
+
+  /**
+   * @return a start time to pass to end()
+   */
+  public static long begin() {
+    return System.nanoTime();
+  }
+
+  /**
+   * @param end end called or NONE for the engine
+   * @param phase what we were doing
+   * @param began from begin()
+   */
+  public void end(final SynchEndType end,
+                  final Phase phase,
+                  final long began) {
+    final int row = row(end);
+    final long elapsed = System.nanoTime() - began;
+
+    nanos[row][phase.ordinal()] += elapsed;
+    calls[row][phase.ordinal()]++;
+
+    final ResynchPhaseEvent ev = new ResynchPhaseEvent();
+    if (ev.isEnabled()) {
+      ev.subscriptionId = subscriptionId;
+      if (row != engineRow) {
+        ev.connectorId = connectorIds[row];
+      }
+      ev.phase = phase.name();
+      ev.elapsed = elapsed;
+      ev.commit();
+    }
+  }
+
+  /**
+   * @param n number of items listed
+   */
+  public void listed(final int n) {
+    listed += n;
+  }
+
+  /**
+   * @param n number of items fetched
+   */
+  public void fetched(final int n) {
+    fetched += n;
+  }
+
+  /** An item was added, updated or deleted
+   */
+  public void written() {
+    written++;
+  }
+
+  /** The resynch is over
+   */
+  public void done() {
+    elapsed = System.nanoTime() - started;
+  }
+
+  /**
+   * @return subscription id
+   */
+  public String getSubscriptionId() {
+    return subscriptionId;
+  }
+
+  /**
+   * @param end A or B
+   * @return the connector id
+   */
+  public String getConnectorId(final SynchEndType end) {
+    return connectorIds[row(end)];
+  }
+
+  /**
+   * @return total millis - so far if not done
+   */
+  public long getMillis() {
+    if (elapsed < 0) {
+      return (System.nanoTime() - started) / 1000000;
+    }
+
+    return elapsed / 1000000;
+  }
+
+  /**
+   * @param end end called or NONE for the engine
+   * @param phase what we were doing
+   * @return millis spent
+   */
+  public long getMillis(final SynchEndType end,
+                        final Phase phase) {
+    return nanos[row(end)][phase.ordinal()] / 1000000;
+  }
+
+  /**
+   * @param end end called or NONE for the engine
+   * @param phase what we were doing
+   * @return number of times
+   */
+  public int getCalls(final SynchEndType end,
+                      final Phase phase) {
+    return calls[row(end)][phase.ordinal()];
+  }
+
+  /** One line with the non-zero phases as name=calls/millis
+   *
+   * @return summary
+   */
+  @Override
+  public String toString() {
+    final StringBuilder sb = new StringBuilder();
+
+    sb.append(subscriptionId)
+      .append(" at=").append(startedMillis)
+      .append(" millis=").append(getMillis())
+      .append(" listed=").append(listed)
+      .append(" fetched=").append(fetched)
+      .append(" written=").append(written);
+
+    for (int row = 0; row < 3; row++) {
+      if (row == engineRow) {
+        sb.append(" engine[");
+      } else {
+        sb.append(row == 0 ? " A:" : " B:")
+          .append(connectorIds[row])
+          .append('[');
+      }
+
+      boolean first = true;
+      for (final Phase p: Phase.values()) {
+        final int ct = calls[row][p.ordinal()];
+        if (ct == 0) {
+          continue;
+        }
+
+        if (!first) {
+          sb.append(' ');
+        }
+        first = false;
+
+        sb.append(p.name())
+          .append('=')
+          .append(ct)
+          .append('/')
+          .append(nanos[row][p.ordinal()] / 1000000);
+      }
+
+      sb.append(']');
+    }
+
+    return sb.toString();
+  }
+
+  private static int row(final SynchEndType end) {
+    if (end == SynchEndType.A) {
+      return 0;
+    }
+
+    if (end == SynchEndType.B) {
+      return 1;
+    }
+
+    return engineRow;
+  }
+}
@@ -18,13 +18,16 @@
 */
 package org.bedework.synch.shared;
 
+import java.util.concurrent.atomic.AtomicLong;
 
 /** Provide a way to get named values.
  *
  * @author douglm
  */
 public class StatLong extends Stat {
-  private long longValue;
+  /* Set as well as incremented so not a LongAdder - a reset and add
+     is not atomic. Busy accumulators belong in Metrics counters. */
+  private final AtomicLong longValue = new AtomicLong();
 
   /**
    * @param name of value
@@ -37,14 +40,14 @@ public class StatLong extends Stat {
    * @param val for stat
    */
   public void setLongValue(final long val) {
-    longValue = val;
+    longValue.set(val);
   }
 
   /**
    * @return long
    */
   public long getLongValue() {
-    return longValue;
+    return longValue.get();
   }
 
   @Override
@@ -55,6 +58,6 @@ public class StatLong extends Stat {
   /**
    */
   public void inc() {
-    setLongValue(getLongValue() + 1);
+    longValue.incrementAndGet();
   }
 }
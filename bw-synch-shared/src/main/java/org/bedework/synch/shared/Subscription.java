@@ -19,7 +19,6 @@
 package org.bedework.synch.shared;
 
 import org.bedework.synch.shared.cnctrs.Connector;
-import org.bedework.synch.shared.cnctrs.ConnectorInstance;
 import org.bedework.synch.shared.exception.SynchException;
 import org.bedework.synch.wsmessages.SynchDirectionType;
 import org.bedework.synch.wsmessages.SynchMasterType;
@@ -68,6 +67,12 @@ import java.util.Date;
  * @author Mike Douglass
  */
 public interface Subscription {
+  /** Database id. Increases as subscriptions are added.
+   *
+   * @return Long id - null if not yet saved
+   */
+  Long getId();
+
   /** Our generated subscriptionId.
    *
    * @param val    String
@@ -230,26 +235,6 @@ public interface Subscription {
    */
   Connector<?, ?, ?> getEndBConn();
 
-  /**
-   * @param val a connection instance
-   */
-  void setEndAConnInst(ConnectorInstance<?> val);
-
-  /**
-   * @return a connection instance or null
-   */
-  ConnectorInstance<?> getEndAConnInst();
-
-  /**
-   * @param val a connection instance
-   */
-  void setEndBConnInst(ConnectorInstance<?> val);
-
-  /**
-   * @return a connection instance or null
-   */
-  ConnectorInstance<?> getEndBConnInst();
-
   /**
    * @return true if any connector info changed
    */
@@ -48,6 +48,16 @@ public interface SubscriptionInfo<T>
    */
   String propnameDeleteSuppressed = "delete-suppressed";
 
+  /** Days before now an item must end after to be synched.
+   * Absent or 0 for no limit.
+   */
+  String propnameWindowPast = "window-past";
+
+  /** Days after now an item must start before to be synched.
+   * Absent or 0 for no limit.
+   */
+  String propnameWindowFuture = "window-future";
+
   /* ====================================================================
    *                   Convenience methods
    * ==================================================================== */
@@ -111,4 +121,28 @@ public interface SubscriptionInfo<T>
    * @return boolean true to suppress deletion of missing events
    */
   boolean getDeletionsSuppressed();
+
+  /** Start of the synch window - int
+   *
+   * @param val days before now - 0 for no limit
+   */
+  void setWindowPastDays(int val);
+
+  /** Start of the synch window - int
+   *
+   * @return days before now - 0 for no limit
+   */
+  int getWindowPastDays();
+
+  /** End of the synch window - int
+   *
+   * @param val days after now - 0 for no limit
+   */
+  void setWindowFutureDays(int val);
+
+  /** End of the synch window - int
+   *
+   * @return days after now - 0 for no limit
+   */
+  int getWindowFutureDays();
 }
@@ -12,6 +12,7 @@ import org.bedework.util.timezones.Timezones;
 
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * User: mike Date: 3/11/18 Time: 00:26
@@ -29,6 +30,20 @@ public interface SynchEngine {
    */
   void handleNotification(Notification<Notification.NotificationItem> note);
 
+  /** Queue a change to a single item reported by one end of a
+   * subscription. Changes are held briefly so repeated changes to an
+   * item are applied once, then applied in batches per subscription.
+   *
+   * @param subscriptionId of the subscription
+   * @param end reporting the change
+   * @param uid of the changed item
+   * @param action CreatedEvent, ModifiedEvent or DeletedEvent
+   */
+  void queueItemChange(String subscriptionId,
+                       SynchEndType end,
+                       String uid,
+                       Notification.NotificationItem.ActionType action);
+
   /** When we start up a new subscription we implant a Connector in the object.
    *
    * @param sub Subscription
@@ -86,6 +101,66 @@ public interface SynchEngine {
    */
   Subscription find(final Subscription sub);
 
+  /**
+   * @return resynchs with more changes than this are checkpointed in
+   *         the change log. Negative for never.
+   */
+  int getCheckpointThreshold();
+
+  /**
+   * @param subscriptionId of the subscription
+   * @return changes an interrupted resynch still has to make - empty
+   *         for none
+   */
+  List<PendingChange> getPendingChanges(String subscriptionId);
+
+  /** Record changes a resynch is about to make.
+   *
+   * @param changes to record
+   */
+  void addPendingChanges(List<PendingChange> changes);
+
+  /** Remove changes once they have been made.
+   *
+   * @param changes to remove
+   */
+  void removePendingChanges(List<PendingChange> changes);
+
+  /**
+   * @param subscriptionId of the subscription
+   * @return stamps for the items a connector last saw - empty for none
+   */
+  List<ItemStamp> getItemStamps(String subscriptionId);
+
+  /** Add new stamps and update changed ones.
+   *
+   * @param stamps to save
+   */
+  void saveItemStamps(List<ItemStamp> stamps);
+
+  /** Remove stamps for items which have gone.
+   *
+   * @param stamps to remove
+   */
+  void removeItemStamps(List<ItemStamp> stamps);
+
+  /**
+   * @return the engine metrics
+   */
+  Metrics getMetrics();
+
+  /** Record the timings of a finished resynch
+   *
+   * @param timings for the resynch
+   */
+  void resynchDone(ResynchTimings timings);
+
+  /**
+   * @return summaries of the slowest resynchs - slowest first, one per
+   *         subscription
+   */
+  List<String> getSlowestResynchs();
+
   /**
    * @param val to decrypt
    * @return decrypted string
@@ -112,6 +187,17 @@ public interface SynchEngine {
   void handleNotifications(
           final NotificationBatch<Notification> notes);
 
+  /** Queues a batch of notifications for processing by the engine.
+   * The returned future completes when the batch has been processed -
+   * callers need not hold a thread while that happens. If too many
+   * batches are already waiting an exception with status 503 is thrown.
+   *
+   * @param notes Notifications
+   * @return completes when processing is done
+   */
+  CompletableFuture<Void> queueNotifications(
+          final NotificationBatch<Notification> notes);
+
 
   /**
    * @return a getter for timezones
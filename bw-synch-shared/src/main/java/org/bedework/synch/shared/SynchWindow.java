@@ -0,0 +1,239 @@
+/* ********************************************************************
+    Licensed to Jasig under one or more contributor license
+    agreements. See the NOTICE file distributed with this work
+    for additional information regarding copyright ownership.
+    Jasig licenses this file to you under the Apache License,
+    Version 2.0 (the "License"); you may not use this file
+    except in compliance with the License. You may obtain a
+    copy of the License at:
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on
+    an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied. See the License for the
+    specific language governing permissions and limitations
+    under the License.
+*/
+package org.bedework.synch.shared;
+
+import org.bedework.base.ToString;
+import org.bedework.synch.shared.exception.SynchException;
+import org.bedework.util.calendar.XcalUtil;
+import org.bedework.util.xml.tagdefs.XcalTags;
+
+import ietf.params.xml.ns.icalendar_2.BaseComponentType;
+import ietf.params.xml.ns.icalendar_2.BasePropertyType;
+import ietf.params.xml.ns.icalendar_2.DateDatetimePropertyType;
+import ietf.params.xml.ns.icalendar_2.DurationPropType;
+import ietf.params.xml.ns.icalendar_2.IcalendarType;
+import ietf.params.xml.ns.icalendar_2.VcalendarType;
+import jakarta.xml.bind.JAXBElement;
+import org.oasis_open.docs.ws_calendar.ns.soap.UTCTimeRangeType;
+
+import java.time.Duration;
+import java.util.Date;
+
+import javax.xml.datatype.XMLGregorianCalendar;
+import javax.xml.namespace.QName;
+
+/** The period of time a subscription is synchronised over, relative
+ * to now. Items entirely outside the window are not fetched, not
+ * synched and never deleted.
+ *
+ * <p>Floating and zoned times are treated as UTC - the window is
+ * measured in days so that makes no practical difference. Recurring
+ * items are treated as continuing indefinitely.
+ *
+ * @param start millis - items ending at or before this are outside
+ * @param end millis - items starting at or after this are outside
+ *
+ * @author Mike Douglass
+ */
+public record SynchWindow(long start, long end) {
+  private static final long dayMillis = 24L * 60 * 60 * 1000;
+
+  /**
+   * @param info for the subscription
+   * @return the current window or null if not limited
+   */
+  public static SynchWindow of(final SubscriptionInfo<?> info) {
+    if (info == null) {
+      return null;
+    }
+
+    final int past = info.getWindowPastDays();
+    final int future = info.getWindowFutureDays();
+
+    if ((past <= 0) && (future <= 0)) {
+      return null;
+    }
+
+    final long now = System.currentTimeMillis();
+    final long start;
+    final long end;
+
+    if (past <= 0) {
+      start = Long.MIN_VALUE;
+    } else {
+      start = now - past * dayMillis;
+    }
+
+    if (future <= 0) {
+      end = Long.MAX_VALUE;
+    } else {
+      end = now + future * dayMillis;
+    }
+
+    return new SynchWindow(start, end);
+  }
+
+  /**
+   * @return a time range for a calendar query
+   */
+  public UTCTimeRangeType getTimeRange() {
+    final UTCTimeRangeType tr = new UTCTimeRangeType();
+
+    try {
+      if (start != Long.MIN_VALUE) {
+        tr.setStart(XcalUtil.getXMlUTCCal(new Date(start)));
+      }
+
+      if (end != Long.MAX_VALUE) {
+        tr.setEnd(XcalUtil.getXMlUTCCal(new Date(end)));
+      }
+    } catch (final Throwable t) {
+      throw new SynchException(t);
+    }
+
+    return tr;
+  }
+
+  /**
+   * @param ical calendar data
+   * @return true if any component overlaps the window
+   */
+  public boolean overlaps(final IcalendarType ical) {
+    if (ical == null) {
+      return false;
+    }
+
+    for (final VcalendarType vcal: ical.getVcalendar()) {
+      if (vcal.getComponents() == null) {
+        continue;
+      }
+
+      for (final JAXBElement<? extends BaseComponentType> comp:
+              vcal.getComponents().getBaseComponent()) {
+        if (overlaps(comp.getValue())) {
+          return true;
+        }
+      }
+    }
+
+    return false;
+  }
+
+  /** Components without a start are always inside.
+   *
+   * @param comp event or task
+   * @return true if it overlaps the window
+   */
+  public boolean overlaps(final BaseComponentType comp) {
+    final long compStart = getMillis(comp, XcalTags.dtstart);
+
+    if (compStart == Long.MIN_VALUE) {
+      return true;
+    }
+
+    if (compStart >= end) {
+      return false;
+    }
+
+    if (XcalUtil.findProperty(comp, XcalTags.rrule) != null) {
+      return true;
+    }
+
+    long compEnd = getMillis(comp, XcalTags.dtend);
+
+    if (compEnd == Long.MIN_VALUE) {
+      compEnd = getMillis(comp, XcalTags.due);
+    }
+
+    if (compEnd == Long.MIN_VALUE) {
+      final BasePropertyType dur =
+              XcalUtil.findProperty(comp, XcalTags.duration);
+
+      if (dur instanceof final DurationPropType dpt) {
+        compEnd = addDuration(compStart, dpt.getDuration());
+      } else {
+        compEnd = compStart;
+      }
+    }
+
+    return compEnd >= start;
+  }
+
+  @Override
+  public String toString() {
+    return new ToString(this).append("start", start)
+                             .append("end", end)
+                             .toString();
+  }
+
+  private static long getMillis(final BaseComponentType comp,
+                                final QName tag) {
+    final BasePropertyType prop = XcalUtil.findProperty(comp, tag);
+
+    if (!(prop instanceof final DateDatetimePropertyType dt)) {
+      return Long.MIN_VALUE;
+    }
+
+    XMLGregorianCalendar xgc = dt.getDateTime();
+    if (xgc == null) {
+      xgc = dt.getDate();
+    }
+
+    if (xgc == null) {
+      return Long.MIN_VALUE;
+    }
+
+    return xgc.toGregorianCalendar().getTimeInMillis();
+  }
+
+  /* Returns Long.MAX_VALUE if we can't make sense of the duration so
+   * the item is kept.
+   */
+  private static long addDuration(final long millis,
+                                  final String val) {
+    if (val == null) {
+      return millis;
+    }
+
+    try {
+      final boolean neg = val.startsWith("-");
+      String d = val;
+      if (neg || d.startsWith("+")) {
+        d = d.substring(1);
+      }
+
+      final long dmillis;
+
+      if (d.endsWith("W")) {
+        dmillis = Long.parseLong(d.substring(1, d.length() - 1)) *
+                7 * dayMillis;
+      } else {
+        dmillis = Duration.parse(d).toMillis();
+      }
+
+      if (neg) {
+        return millis - dmillis;
+      }
+
+      return millis + dmillis;
+    } catch (final Throwable t) {
+      return Long.MAX_VALUE;
+    }
+  }
+}
@@ -19,6 +19,7 @@
 package org.bedework.synch.shared.cnctrs;
 
 import org.bedework.synch.shared.BaseSubscriptionInfo;
+import org.bedework.synch.shared.JaxbRegistry;
 import org.bedework.synch.shared.Notification;
 import org.bedework.synch.shared.PropertiesInfo;
 import org.bedework.synch.shared.Subscription;
@@ -33,26 +34,25 @@ import org.bedework.synch.wsmessages.SynchRemoteServicePortType;
 import org.bedework.util.logging.BwLogger;
 import org.bedework.util.logging.Logged;
 
-import org.w3c.dom.Document;
-
 import java.io.OutputStream;
 import java.net.URL;
-import java.util.HashMap;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import jakarta.xml.bind.JAXBContext;
 import jakarta.xml.bind.JAXBElement;
 import jakarta.xml.bind.Marshaller;
 import jakarta.xml.bind.Unmarshaller;
 import javax.xml.namespace.QName;
-import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import jakarta.xml.soap.MessageFactory;
-import jakarta.xml.soap.SOAPBody;
-import jakarta.xml.soap.SOAPMessage;
 
 /** A special connector to handle calls to the synch engine via the web context.
  *
@@ -77,8 +77,11 @@ public abstract class AbstractConnector<T,
 
   private String connectorId;
 
-  private final Map<String, SynchRemoteService> services =
-          new HashMap<>();
+  /* Building a service means loading the wsdl - share them between
+     connectors.
+   */
+  private static final Map<String, SynchRemoteService> services =
+          new ConcurrentHashMap<>();
 
   private static final ietf.params.xml.ns.icalendar_2.ObjectFactory icalOf =
       new ietf.params.xml.ns.icalendar_2.ObjectFactory();
@@ -91,10 +94,34 @@ public abstract class AbstractConnector<T,
 
   protected boolean failed;
 
-  // Are these thread safe?
   protected ObjectFactory of = new ObjectFactory();
-  protected MessageFactory soapMsgFactory;
-  protected JAXBContext jc;
+
+  private static final String soap11Ns =
+          "http://schemas.xmlsoap.org/soap/envelope/";
+
+  private static final String soap12Ns =
+          "http://www.w3.org/2003/05/soap-envelope";
+
+  private static final byte[] envelopeStart =
+          ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+                   "<SOAP-ENV:Envelope xmlns:SOAP-ENV=\"" + soap11Ns + "\">" +
+                   "<SOAP-ENV:Header/><SOAP-ENV:Body>")
+                  .getBytes(StandardCharsets.UTF_8);
+
+  private static final byte[] envelopeEnd =
+          "</SOAP-ENV:Body></SOAP-ENV:Envelope>"
+                  .getBytes(StandardCharsets.UTF_8);
+
+  /* The factory is thread safe once configured */
+  private static final XMLInputFactory xmlInputFactory;
+
+  static {
+    xmlInputFactory = XMLInputFactory.newInstance();
+    xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    xmlInputFactory.setProperty(
+            XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    xmlInputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+  }
 
   protected PropertiesInfo propInfo;
 
@@ -124,6 +151,9 @@ public abstract class AbstractConnector<T,
     this.callbackUri = callbackUri;
     this.config = conf;
 
+    cinstMap.setLimits(conf.getMaxInstances(),
+                       conf.getInstanceIdleTimeout() * 1000L);
+
     stopped = false;
     running = true;
   }
@@ -226,17 +256,24 @@ public abstract class AbstractConnector<T,
       return null;
     }
 
-    TI inst = cinstMap.find(sub, end);
+    return cinstMap.get(sub, end, this::makeInstance);
+  }
 
-    if (inst != null) {
-      return inst;
+  @Override
+  public Pin pinConnectorInstance(final Subscription sub,
+                                  final SynchEndType end,
+                                  final boolean release) {
+    if (!running) {
+      return null;
     }
 
-    inst = makeInstance(sub, end);
-
-    cinstMap.add(sub, end, inst);
+    return cinstMap.pin(sub, end, release, this::makeInstance);
+  }
 
-    return inst;
+  @Override
+  public void removeConnectorInstance(final Subscription sub,
+                                      final SynchEndType end) {
+    cinstMap.remove(sub, end);
   }
 
   static class BedeworkNotificationBatch
@@ -269,34 +306,44 @@ public abstract class AbstractConnector<T,
   }
 
   private SynchRemoteService getRemoteService(final String uri) {
-    SynchRemoteService ers = services.get(uri);
-    if (ers != null) {
-      return ers;
-    }
-
-    try {
-      ers = new SynchRemoteService(
-              new URL(uri),
-              new QName(SynchDefs.synchNamespace,
-                        "SynchRemoteService"));
-      services.put(uri, ers);
-      return ers;
-    } catch (final Throwable t) {
-      throw new SynchException(t);
-    }
+    return services.computeIfAbsent(uri, u -> {
+      try {
+        return new SynchRemoteService(
+                new URL(u),
+                new QName(SynchDefs.synchNamespace,
+                          "SynchRemoteService"));
+      } catch (final Throwable t) {
+        throw new SynchException(t);
+      }
+    });
   }
 
+  /** Read the SOAP envelope from the request as a stream and
+   * unmarshal the first body element directly from it.
+   *
+   * @param req the request
+   * @return the unwrapped body object
+   */
   protected Object unmarshalBody(final HttpServletRequest req) {
+    XMLStreamReader rdr = null;
+
     try {
-      final SOAPMessage msg =
-              getSoapMsgFactory().createMessage(null,// headers
-                                                req.getInputStream());
+      rdr = xmlInputFactory.createXMLStreamReader(req.getInputStream());
 
-      final SOAPBody body = msg.getSOAPBody();
+      if (!toBodyContent(rdr)) {
+        throw new SynchException(HttpServletResponse.SC_BAD_REQUEST,
+                                 "No SOAP body content");
+      }
 
-      final Unmarshaller u = getSynchJAXBContext().createUnmarshaller();
+      final Unmarshaller u =
+              JaxbRegistry.getUnmarshaller(JaxbRegistry.synchContextPath);
+      Object o;
 
-      Object o = u.unmarshal(body.getFirstChild());
+      try {
+        o = u.unmarshal(rdr);
+      } finally {
+        JaxbRegistry.release(JaxbRegistry.synchContextPath, u);
+      }
 
       if (o instanceof JAXBElement) {
         // Some of them get wrapped.
@@ -308,58 +355,71 @@ public abstract class AbstractConnector<T,
       throw se;
     } catch(final Throwable t) {
       throw new SynchException(t);
+    } finally {
+      if (rdr != null) {
+        try {
+          rdr.close();
+        } catch (final Throwable ignored) {}
+      }
     }
   }
 
+  /** Write the object as the body of a SOAP 1.1 envelope straight to
+   * the output stream. Output is compact unless the connector is
+   * configured for formatted output.
+   *
+   * @param o object to marshal
+   * @param out destination
+   */
   protected void marshal(final Object o,
                          final OutputStream out) {
-    try {
-      final Marshaller marshaller = jc.createMarshaller();
-      marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
+    final Marshaller marshaller =
+            JaxbRegistry.getMarshaller(JaxbRegistry.synchContextPath);
 
-      final DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-      dbf.setNamespaceAware(true);
-      final Document doc = dbf.newDocumentBuilder().newDocument();
+    try {
+      final boolean formatted =
+              (config != null) && config.getFormattedOutput();
 
-      final SOAPMessage msg = soapMsgFactory.createMessage();
-      msg.getSOAPBody().addDocument(doc);
+      out.write(envelopeStart);
 
-      marshaller.marshal(o,
-                         msg.getSOAPBody());
+      marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+      marshaller.setProperty(Marshaller.JAXB_ENCODING, "UTF-8");
+      marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT,
+                             formatted);
+      marshaller.marshal(o, out);
 
-      msg.writeTo(out);
+      out.write(envelopeEnd);
+      out.flush();
     } catch(final Throwable t) {
       throw new SynchException(t);
+    } finally {
+      JaxbRegistry.release(JaxbRegistry.synchContextPath, marshaller);
     }
   }
 
   protected MessageFactory getSoapMsgFactory() {
-    try {
-      if (soapMsgFactory == null) {
-        soapMsgFactory = MessageFactory.newInstance();
-      }
-
-      return soapMsgFactory;
-    } catch(final Throwable t) {
-      throw new SynchException(t);
-    }
+    return JaxbRegistry.getSoapMsgFactory();
   }
 
   /* ==============================================================
-   *                         Package methods
+   *                         Private methods
    * ============================================================== */
 
-  JAXBContext getSynchJAXBContext() {
-    try {
-      if (jc == null) {
-        jc = JAXBContext.newInstance("org.bedework.synch.wsmessages:" +
-                                     "ietf.params.xml.ns.icalendar_2");
+  /* Position the reader on the first element inside the SOAP body.
+   * Returns false if there is no body or it is empty.
+   */
+  private static boolean toBodyContent(final XMLStreamReader rdr)
+          throws XMLStreamException {
+    while (rdr.hasNext()) {
+      if ((rdr.next() == XMLStreamConstants.START_ELEMENT) &&
+              "Body".equals(rdr.getLocalName()) &&
+              (soap11Ns.equals(rdr.getNamespaceURI()) ||
+                       soap12Ns.equals(rdr.getNamespaceURI()))) {
+        return rdr.nextTag() == XMLStreamConstants.START_ELEMENT;
       }
-
-      return jc;
-    } catch(final Throwable t) {
-      throw new SynchException(t);
     }
+
+    return false;
   }
 
   /* ==============================================================
@@ -120,6 +120,10 @@ public abstract class AbstractConnectorInstance<CnctrT extends AbstractConnector
     return true;
   }
 
+  @Override
+  public void release() {
+  }
+
   @Override
   public void setLastCrudCts(final CrudCts val) {
     info.setLastCrudCts(val);
@@ -5,13 +5,13 @@ package org.bedework.synch.shared.cnctrs;
 
 import org.bedework.synch.shared.BaseSubscriptionInfo;
 import org.bedework.synch.shared.Subscription;
+import org.bedework.synch.shared.SynchWindow;
 import org.bedework.synch.shared.conf.ConnectorConfigI;
 import org.bedework.synch.shared.exception.SynchException;
 import org.bedework.synch.wsmessages.SynchEndType;
 import org.bedework.util.calendar.XcalUtil;
 import org.bedework.util.http.Headers;
 import org.bedework.util.http.HttpUtil;
-import org.bedework.util.misc.Util;
 import org.bedework.util.xml.tagdefs.XcalTags;
 
 import ietf.params.xml.ns.icalendar_2.ArrayOfComponents;
@@ -66,7 +66,7 @@ public abstract class BaseConnectorInstance<CnctrT extends AbstractConnector,
   public static class MapEntry {
     public List<JAXBElement<? extends BaseComponentType>> comps =
             new ArrayList<>();
-    public String lastMod;
+    public long lastModified = ItemInfo.noLastmod;
     public String uid;
   }
 
@@ -181,6 +181,15 @@ public abstract class BaseConnectorInstance<CnctrT extends AbstractConnector,
     fetchedIcal = null; // Force refetch
   }
 
+  @Override
+  public void release() {
+    /* The change token is retained so an unchanged feed is not
+     * fetched again on the next resynch.
+     */
+    fetchedIcal = null;
+    uidMap = null;
+  }
+
   protected boolean changed(final boolean headSupported,
                             final String contentType) {
     /* This implementation needs to at least check the change token for the
@@ -236,6 +245,11 @@ public abstract class BaseConnectorInstance<CnctrT extends AbstractConnector,
 
   @Override
   public SynchItemsInfo getItemsInfo() {
+    return getItemsInfo(SynchWindow.of(sub.getInfo()));
+  }
+
+  @Override
+  public SynchItemsInfo getItemsInfo(final SynchWindow window) {
     final SynchItemsInfo sii = new SynchItemsInfo();
     sii.items = new ArrayList<>();
     sii.setStatus(StatusType.OK);
@@ -255,7 +269,14 @@ public abstract class BaseConnectorInstance<CnctrT extends AbstractConnector,
     }
 
     for (final MapEntry me: uidMap.values()) {
-      sii.items.add(new ItemInfo(me.uid, me.lastMod,
+      /* Skip anything entirely outside the synch window */
+      if ((window != null) &&
+              me.comps.stream()
+                      .noneMatch(c -> window.overlaps(c.getValue()))) {
+        continue;
+      }
+
+      sii.items.add(new ItemInfo(me.uid, me.lastModified,
                                  null));  // lastSynch
     }
 
@@ -380,13 +401,13 @@ public abstract class BaseConnectorInstance<CnctrT extends AbstractConnector,
                             .findProperty(comp.getValue(),
                                           XcalTags.lastModified);
 
-            String lastmod= null;
             if (lm != null) {
-              lastmod = lm.getUtcDateTime().toXMLFormat();
-            }
+              final long lastmod =
+                      ItemInfo.toMillis(lm.getUtcDateTime());
 
-            if (Util.cmpObjval(me.lastMod, lastmod) < 0) {
-              me.lastMod = lastmod;
+              if (me.lastModified < lastmod) {
+                me.lastModified = lastmod;
+              }
             }
 
             me.comps.add(comp);
@@ -158,6 +158,36 @@ public interface Connector<C extends ConnectorInstance<?>,
   C getConnectorInstance(Subscription sub,
                          SynchEndType end);
 
+  /** A connector instance in use. Close it when done.
+   */
+  interface Pin extends AutoCloseable {
+    @Override
+    void close();
+  }
+
+  /** Called before using the connector instance for a subscription
+   * end. Until the pin is closed the instance is neither dropped
+   * nor released by the connector. Pins are counted.
+   *
+   * @param sub - the subscription
+   * @param end - which end
+   * @param release - true to release fetched data once the last pin
+   *                is closed
+   * @return the pin or null for no synch available
+   */
+  Pin pinConnectorInstance(Subscription sub,
+                           SynchEndType end,
+                           boolean release);
+
+  /** Called when a subscription is deleted. Discard any connector
+   * instance held for it.
+   *
+   * @param sub - the subscription
+   * @param end - which end
+   */
+  void removeConnectorInstance(Subscription sub,
+                               SynchEndType end);
+
   /** Far end may send a batch of notifications. These should not be batched
    * arbitrarily. One batch per message and response.
    *
@@ -20,6 +20,7 @@ package org.bedework.synch.shared.cnctrs;
 
 import org.bedework.synch.shared.BaseSubscriptionInfo;
 import org.bedework.synch.shared.BaseSubscriptionInfo.CrudCts;
+import org.bedework.synch.shared.SynchWindow;
 import org.bedework.synch.wsmessages.ActiveSubscriptionRequestType;
 import org.bedework.synch.wsmessages.SubscribeResponseType;
 import org.bedework.synch.wsmessages.UnsubscribeRequestType;
@@ -34,8 +35,11 @@ import org.oasis_open.docs.ws_calendar.ns.soap.FetchItemResponseType;
 import org.oasis_open.docs.ws_calendar.ns.soap.UpdateItemResponseType;
 import org.oasis_open.docs.ws_calendar.ns.soap.UpdateItemType;
 
+import java.time.Instant;
 import java.util.List;
 
+import javax.xml.datatype.XMLGregorianCalendar;
+
 /** The interface implemented by connectors. A connector instance is obtained
  * from a connector to handle a specific end of a specific subscription - items of
  * inforamtion handed to the getConnectorInstance method.
@@ -136,11 +140,14 @@ public interface ConnectorInstance<InfoT extends BaseSubscriptionInfo> {
    * This information is only valid in the context of a given subscription.
    */
   class ItemInfo {
+    /** lastModified value when the item has none */
+    public static final long noLastmod = Long.MIN_VALUE;
+
     /** */
     public String uid;
 
-    /** */
-    public String lastMod;
+    /** UTC millis or noLastmod */
+    public long lastModified;
 
     /** */
     public String lastSynch;
@@ -150,24 +157,45 @@ public interface ConnectorInstance<InfoT extends BaseSubscriptionInfo> {
 
     /**
      * @param uid
-     * @param lastMod
+     * @param lastModified UTC millis or noLastmod
      * @param lastSynch
      */
     public ItemInfo(final String uid,
-                    final String lastMod,
+                    final long lastModified,
                     final String lastSynch) {
       this.uid = uid;
-      this.lastMod = lastMod;
+      this.lastModified = lastModified;
       this.lastSynch = lastSynch;
     }
 
+    /** Connectors should convert lastmods once with this when
+     * building the item info.
+     *
+     * @param val a lastmod - may be null
+     * @return UTC millis or noLastmod
+     */
+    public static long toMillis(final XMLGregorianCalendar val) {
+      if (val == null) {
+        return noLastmod;
+      }
+
+      return val.toGregorianCalendar().getTimeInMillis();
+    }
+
     @Override
     public String toString() {
-      return new ToString(this)
-              .append("uid", uid)
-              .append("lastMod", lastMod)
-              .append("lastSynch", lastSynch)
-              .toString();
+      final ToString ts = new ToString(this)
+              .append("uid", uid);
+
+      if (lastModified == noLastmod) {
+        ts.append("lastModified", (String)null);
+      } else {
+        ts.append("lastModified", Instant.ofEpochMilli(lastModified)
+                                         .toString());
+      }
+
+      return ts.append("lastSynch", lastSynch)
+               .toString();
     }
   }
 
@@ -187,6 +215,19 @@ public interface ConnectorInstance<InfoT extends BaseSubscriptionInfo> {
    */
   SynchItemsInfo getItemsInfo();
 
+  /** Get information about the items in the subscribed calendar which
+   * overlap the window. A resynch lists both ends with the same
+   * window so anything missing at one end is really missing.
+   *
+   * <p>The default ignores the window.
+   *
+   * @param window limits the items listed - null for no limit
+   * @return List of items - never null, maybe empty.
+   */
+  default SynchItemsInfo getItemsInfo(final SynchWindow window) {
+    return getItemsInfo();
+  }
+
   /** Add a calendar component
    *
    * @param val a calendar component
@@ -227,4 +268,19 @@ public interface ConnectorInstance<InfoT extends BaseSubscriptionInfo> {
   /* Reset subscription so we do a refresh of the data
    */
   void forceRefresh();
+
+  /** Called when a resynch using this instance has completed
+   * successfully. State derived from the data the resynch used - for
+   * example content stamps for a feed - may be saved now. The default
+   * does nothing.
+   */
+  default void resynchDone() {
+  }
+
+  /** Release any data cached by this instance, e.g. a fetched and
+   * parsed calendar. Called at the end of a resynch and when the
+   * instance is discarded. The instance remains usable and will
+   * fetch the data again if needed.
+   */
+  void release();
 }
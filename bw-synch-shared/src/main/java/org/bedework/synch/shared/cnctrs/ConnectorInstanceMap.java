@@ -19,97 +19,318 @@
 package org.bedework.synch.shared.cnctrs;
 
 import org.bedework.synch.shared.Subscription;
-import org.bedework.synch.shared.exception.SynchException;
 import org.bedework.synch.wsmessages.SynchEndType;
 import org.bedework.base.ToString;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
 
 
 /** A map for use by Connectors.
+ *
+ * <p>Instances are keyed on the subscription id and end - subscriptions
+ * are reloaded from the db as new objects so the subscription itself
+ * cannot be used as a key.
+ *
+ * <p>If a limit is set the least recently used instances are dropped
+ * when the map grows beyond it and instances unused for longer than
+ * the idle timeout are dropped on a later access. Dropped instances
+ * are released and will be recreated by the connector on demand.
+ *
+ * <p>Instances in use by a synchling are pinned. Pinned instances are
+ * never dropped by eviction, and an instance removed while pinned is
+ * only released when the last pin is closed.
  *
  * @author Mike Douglass
  *
  * @param <CI>
  */
-public class ConnectorInstanceMap<CI extends ConnectorInstance> {
-  static class Key {
-    Subscription sub;
+public class ConnectorInstanceMap<CI extends ConnectorInstance<?>> {
+  record Key(String subscriptionId,
+             SynchEndType end) {
+    @Override
+    public String toString() {
+      return new ToString(this).append("subscriptionId", subscriptionId)
+                               .append("end", end)
+                               .toString();
+    }
+  }
 
-    SynchEndType end;
+  static class Entry<CI> {
+    final CI cinst;
 
-    Key(final Subscription sub,
-        final SynchEndType end) {
-      this.sub = sub;
-      this.end = end;
-    }
+    volatile long lastUsed;
 
-    @Override
-    public int hashCode() {
-      return sub.hashCode() * end.hashCode();
+    /* The rest are guarded by the entry */
+    private int pins;
+
+    private boolean releaseWanted;
+
+    private boolean dropped;
+
+    Entry(final CI cinst) {
+      this.cinst = cinst;
+      lastUsed = System.currentTimeMillis();
     }
 
-    @Override
-    public boolean equals(final Object o) {
-      if (!(o instanceof final Key that)) {
+    /* False if dropped - the caller needs a new entry */
+    synchronized boolean pin(final boolean release) {
+      if (dropped) {
         return false;
       }
 
-      if (that.end != end) {
+      pins++;
+      releaseWanted |= release;
+      return true;
+    }
+
+    /* True if the instance should be released now */
+    synchronized boolean unpin() {
+      pins--;
+
+      if ((pins > 0) || (!dropped && !releaseWanted)) {
         return false;
       }
 
-      return sub.equals(that.sub);
+      releaseWanted = false;
+      return true;
     }
 
-    @Override
-    public String toString() {
-      return new ToString(this).append("sub", sub)
-                               .append("end", end)
-                               .toString();
+    synchronized boolean pinned() {
+      return pins > 0;
     }
+
+    /* True if the instance should be released now */
+    synchronized boolean drop() {
+      dropped = true;
+      return pins == 0;
+    }
+  }
+
+  record Aged<CI>(Key key,
+                  Entry<CI> ent,
+                  long lastUsed) {
+  }
+
+  private final Map<Key, Entry<CI>> theMap = new ConcurrentHashMap<>();
+
+  private volatile int maxInstances;
+
+  private volatile long idleMillis;
+
+  private volatile long lastSweep = System.currentTimeMillis();
+
+  /* Only one thread evicts at a time - others carry on */
+  private final AtomicBoolean evicting = new AtomicBoolean();
+
+  /** Set the limits for this map.
+   *
+   * @param maxInstances maximum number of instances - 0 for no limit
+   * @param idleMillis millis an instance may stay unused - 0 for no limit
+   */
+  public void setLimits(final int maxInstances,
+                        final long idleMillis) {
+    this.maxInstances = maxInstances;
+    this.idleMillis = idleMillis;
   }
 
-  private final Map<Key, CI> theMap = new HashMap<>();
+  /**
+   * @return number of instances currently held
+   */
+  public int size() {
+    return theMap.size();
+  }
 
-  /** Add a connector
+  /** Find a connector instance, creating it if it is not in the map.
+   * A null from the creator is returned and nothing is added.
    *
-     * @param sub Subscription
-     * @param end the end type
-     * @param cinst connector
+   * @param sub Subscription
+   * @param end the end type
+   * @param creator called to create a missing instance
+   * @return CI or null
    */
-  public synchronized void add(final Subscription sub,
-                               final SynchEndType end,
-                               final CI cinst) {
-    final Key key = new Key(sub, end);
+  public CI get(final Subscription sub,
+                final SynchEndType end,
+                final BiFunction<Subscription, SynchEndType, CI> creator) {
+    final Entry<CI> ent =
+            theMap.computeIfAbsent(new Key(sub.getSubscriptionId(), end),
+                                   k -> {
+                                     final CI cinst =
+                                             creator.apply(sub, end);
+                                     if (cinst == null) {
+                                       return null;
+                                     }
+
+                                     return new Entry<>(cinst);
+                                   });
+
+    evict();
 
-    if (theMap.containsKey(key)) {
-      throw new SynchException("instance already in map for " + key);
+    if (ent == null) {
+      return null;
     }
 
-    theMap.put(key, cinst);
+    ent.lastUsed = System.currentTimeMillis();
+    return ent.cinst;
   }
 
-  /** Find a connector
+  /** Find or create a connector instance and pin it. The instance
+   * stays in the map until the pin is closed.
    *
    * @param sub Subscription
    * @param end the end type
-   * @return CI or null
+   * @param release true to release the instance once the last pin
+   *                is closed
+   * @param creator called to create a missing instance
+   * @return the pin or null if there is no instance
    */
-  public synchronized CI find(final Subscription sub,
-                              final SynchEndType end) {
-    return theMap.get(new Key(sub, end));
+  public Connector.Pin pin(final Subscription sub,
+                           final SynchEndType end,
+                           final boolean release,
+                           final BiFunction<Subscription, SynchEndType, CI> creator) {
+    while (true) {
+      final Entry<CI> ent =
+              theMap.computeIfAbsent(new Key(sub.getSubscriptionId(), end),
+                                     k -> {
+                                       final CI cinst =
+                                               creator.apply(sub, end);
+                                       if (cinst == null) {
+                                         return null;
+                                       }
+
+                                       return new Entry<>(cinst);
+                                     });
+
+      if (ent == null) {
+        return null;
+      }
+
+      if (!ent.pin(release)) {
+        // Dropped while we were looking - get a new one
+        continue;
+      }
+
+      ent.lastUsed = System.currentTimeMillis();
+      evict();
+
+      final AtomicBoolean closed = new AtomicBoolean();
+
+      return () -> {
+        if (closed.compareAndSet(false, true) && ent.unpin()) {
+          ent.cinst.release();
+        }
+      };
+    }
   }
 
+  /** Find a connector instance
+   *
+   * @param sub Subscription
+   * @param end the end type
+   * @return CI or null
+   */
+  public CI find(final Subscription sub,
+                 final SynchEndType end) {
+    final Entry<CI> ent =
+            theMap.get(new Key(sub.getSubscriptionId(), end));
+
+    if (ent == null) {
+      return null;
+    }
+
+    ent.lastUsed = System.currentTimeMillis();
+    return ent.cinst;
+  }
 
-  /** Remove a connector
+  /** Remove and release a connector instance. A pinned instance is
+   * released when the last pin is closed.
    *
    * @param sub Subscription
    * @param end the end type
    */
-  public synchronized void remove(final Subscription sub,
-                                  final SynchEndType end) {
-    theMap.remove(new Key(sub, end));
+  public void remove(final Subscription sub,
+                     final SynchEndType end) {
+    final Entry<CI> ent =
+            theMap.remove(new Key(sub.getSubscriptionId(), end));
+
+    if ((ent != null) && ent.drop()) {
+      ent.cinst.release();
+    }
+  }
+
+  /* Removes instances over the limit and, at most once per idle
+   * period, those which have been idle too long.
+   */
+  private void evict() {
+    final int max = maxInstances;
+    final long idle = idleMillis;
+    final long now = System.currentTimeMillis();
+
+    final boolean overLimit = (max > 0) && (theMap.size() > max);
+    final boolean sweep = (idle > 0) && ((now - lastSweep) >= idle);
+
+    if ((!overLimit && !sweep) ||
+            !evicting.compareAndSet(false, true)) {
+      return;
+    }
+
+    try {
+      if (sweep) {
+        lastSweep = now;
+
+        for (final var me: theMap.entrySet()) {
+          if ((now - me.getValue().lastUsed) >= idle) {
+            evict(me.getKey(), me.getValue());
+          }
+        }
+      }
+
+      if ((max <= 0) || (theMap.size() <= max)) {
+        return;
+      }
+
+      /* Drop down to 90% of the limit so we don't do this on every
+       * subsequent add.
+       */
+      final int target = max - (max / 10);
+      /* Snapshot the times - they may change while we sort */
+      final List<Aged<CI>> ents = new ArrayList<>(theMap.size());
+
+      for (final var me: theMap.entrySet()) {
+        ents.add(new Aged<>(me.getKey(), me.getValue(),
+                            me.getValue().lastUsed));
+      }
+
+      ents.sort(Comparator.comparingLong(Aged::lastUsed));
+
+      for (final Aged<CI> a: ents) {
+        if (theMap.size() <= target) {
+          break;
+        }
+
+        evict(a.key(), a.ent());
+      }
+    } finally {
+      evicting.set(false);
+    }
+  }
+
+  /* Pinned entries stay - they are in use */
+  private void evict(final Key key,
+                     final Entry<CI> ent) {
+    synchronized (ent) {
+      if (ent.pinned() || !theMap.remove(key, ent)) {
+        return;
+      }
+
+      ent.drop();
+    }
+
+    ent.cinst.release();
   }
 }
@@ -37,6 +37,12 @@ public class ConnectorConfig extends ConfigBase<ConnectorConfig> implements
 
   private boolean trustLastmod;
 
+  private int maxInstances;
+
+  private int instanceIdleTimeout;
+
+  private boolean formattedOutput;
+
   @Override
   public void setConnectorClassName(final String val) {
     connectorClassName = val;
@@ -77,6 +83,36 @@ public class ConnectorConfig extends ConfigBase<ConnectorConfig> implements
     return trustLastmod;
   }
 
+  @Override
+  public void setMaxInstances(final int val) {
+    maxInstances = val;
+  }
+
+  @Override
+  public int getMaxInstances() {
+    return maxInstances;
+  }
+
+  @Override
+  public void setInstanceIdleTimeout(final int val) {
+    instanceIdleTimeout = val;
+  }
+
+  @Override
+  public int getInstanceIdleTimeout() {
+    return instanceIdleTimeout;
+  }
+
+  @Override
+  public void setFormattedOutput(final boolean val) {
+    formattedOutput = val;
+  }
+
+  @Override
+  public boolean getFormattedOutput() {
+    return formattedOutput;
+  }
+
   @Override
   public void toStringSegment(final ToString ts) {
     super.toStringSegment(ts);
@@ -85,6 +121,9 @@ public class ConnectorConfig extends ConfigBase<ConnectorConfig> implements
     ts.append("mbeanClassName", getMbeanClassName());
     ts.append("readOnly", getReadOnly());
     ts.append("trustLastmod", getTrustLastmod());
+    ts.append("maxInstances", getMaxInstances());
+    ts.append("instanceIdleTimeout", getInstanceIdleTimeout());
+    ts.append("formattedOutput", getFormattedOutput());
   }
 
   @Override
@@ -71,4 +71,44 @@ public interface ConnectorConfigI {
    * @return boolean
    */
   boolean getTrustLastmod();
+
+  /** Maximum number of connector instances held in memory. Least
+   * recently used instances are discarded beyond this. 0 for no limit.
+   *
+   * @param val    int
+   */
+  void setMaxInstances(int val);
+
+  /** Maximum number of connector instances held in memory
+   *
+   * @return int
+   */
+  int getMaxInstances();
+
+  /** Seconds a connector instance may stay unused before it is
+   * discarded. 0 for never.
+   *
+   * @param val    int seconds
+   */
+  void setInstanceIdleTimeout(int val);
+
+  /** Seconds a connector instance may stay unused before it is
+   * discarded.
+   *
+   * @return int seconds
+   */
+  int getInstanceIdleTimeout();
+
+  /** Indent XML written by this connector? Useful when debugging -
+   * otherwise compact output is smaller and cheaper to produce.
+   *
+   * @param val    boolean
+   */
+  void setFormattedOutput(boolean val);
+
+  /** Indent XML written by this connector?
+   *
+   * @return boolean
+   */
+  boolean getFormattedOutput();
 }
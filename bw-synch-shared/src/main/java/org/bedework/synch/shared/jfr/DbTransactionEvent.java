@@ -0,0 +1,41 @@
+/* ********************************************************************
+    Licensed to Jasig under one or more contributor license
+    agreements. See the NOTICE file distributed with this work
+    for additional information regarding copyright ownership.
+    Jasig licenses this file to you under the Apache License,
+    Version 2.0 (the "License"); you may not use this file
+    except in compliance with the License. You may obtain a
+    copy of the License at:
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on
+    an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied. See the License for the
+    specific language governing permissions and limitations
+    under the License.
+*/
+package org.bedework.synch.shared.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** A session with the engine's own tables, from open to close.
+ *
+ * @author Mike Douglass
+ */
+@Name("org.bedework.synch.DbTransaction")
+@Label("Synch Db Transaction")
+@Category({"Bedework", "Synch"})
+@Description("A session and transaction on the synch tables")
+@StackTrace(false)
+public class DbTransactionEvent extends Event {
+  /** */
+  @Label("Rolled Back")
+  public boolean rolledBack;
+}
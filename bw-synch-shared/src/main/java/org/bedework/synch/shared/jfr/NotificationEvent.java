@@ -0,0 +1,50 @@
+/* ********************************************************************
+    Licensed to Jasig under one or more contributor license
+    agreements. See the NOTICE file distributed with this work
+    for additional information regarding copyright ownership.
+    Jasig licenses this file to you under the Apache License,
+    Version 2.0 (the "License"); you may not use this file
+    except in compliance with the License. You may obtain a
+    copy of the License at:
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on
+    an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied. See the License for the
+    specific language governing permissions and limitations
+    under the License.
+*/
+package org.bedework.synch.shared.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** A notification taken from the engine's queue.
+ *
+ * @author Mike Douglass
+ */
+@Name("org.bedework.synch.Notification")
+@Label("Synch Notification")
+@Category({"Bedework", "Synch"})
+@Description("A notification taken from the queue and processed")
+@StackTrace(false)
+public class NotificationEvent extends Event {
+  /** */
+  @Label("Subscription Id")
+  public String subscriptionId;
+
+  /** */
+  @Label("Action")
+  public String action;
+
+  /** */
+  @Label("Queued")
+  @Description("Notifications still waiting")
+  public int queued;
+}
@@ -0,0 +1,42 @@
+/* ********************************************************************
+    Licensed to Jasig under one or more contributor license
+    agreements. See the NOTICE file distributed with this work
+    for additional information regarding copyright ownership.
+    Jasig licenses this file to you under the Apache License,
+    Version 2.0 (the "License"); you may not use this file
+    except in compliance with the License. You may obtain a
+    copy of the License at:
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on
+    an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied. See the License for the
+    specific language governing permissions and limitations
+    under the License.
+*/
+package org.bedework.synch.shared.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** Waiting for a synchling from the pool.
+ *
+ * @author Mike Douglass
+ */
+@Name("org.bedework.synch.SynchlingAcquire")
+@Label("Synchling Acquire")
+@Category({"Bedework", "Synch"})
+@Description("Wait for a synchling from the pool")
+@StackTrace(false)
+public class SynchlingAcquireEvent extends Event {
+  /** */
+  @Label("Acquired")
+  @Description("False if the wait timed out")
+  public boolean acquired;
+}
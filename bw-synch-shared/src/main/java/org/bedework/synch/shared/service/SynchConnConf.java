@@ -123,6 +123,36 @@ public class SynchConnConf<X extends ConnectorConfig> extends ConfBase<X>
     return cfg.getTrustLastmod();
   }
 
+  @Override
+  public void setMaxInstances(final int val) {
+    cfg.setMaxInstances(val);
+  }
+
+  @Override
+  public int getMaxInstances() {
+    return cfg.getMaxInstances();
+  }
+
+  @Override
+  public void setInstanceIdleTimeout(final int val) {
+    cfg.setInstanceIdleTimeout(val);
+  }
+
+  @Override
+  public int getInstanceIdleTimeout() {
+    return cfg.getInstanceIdleTimeout();
+  }
+
+  @Override
+  public void setFormattedOutput(final boolean val) {
+    cfg.setFormattedOutput(val);
+  }
+
+  @Override
+  public boolean getFormattedOutput() {
+    return cfg.getFormattedOutput();
+  }
+
   /* ====================================================================
    *                   Private methods
    * ==================================================================== */
@@ -90,4 +90,43 @@ public interface SynchConnConfMBean extends ConfBaseMBean {
    */
   @MBeanInfo("Can we trust the lastmod from this connector?")
   boolean getTrustLastmod();
+
+  /** Maximum number of connector instances held in memory
+   *
+   * @param val    int
+   */
+  void setMaxInstances(int val);
+
+  /** Maximum number of connector instances held in memory
+   *
+   * @return int
+   */
+  @MBeanInfo("Maximum number of connector instances held in memory - 0 for no limit.")
+  int getMaxInstances();
+
+  /** Seconds a connector instance may stay unused
+   *
+   * @param val    int seconds
+   */
+  void setInstanceIdleTimeout(int val);
+
+  /** Seconds a connector instance may stay unused
+   *
+   * @return int seconds
+   */
+  @MBeanInfo("Seconds an unused connector instance is retained - 0 for no timeout.")
+  int getInstanceIdleTimeout();
+
+  /** Indent XML written by this connector?
+   *
+   * @param val    boolean
+   */
+  void setFormattedOutput(boolean val);
+
+  /** Indent XML written by this connector?
+   *
+   * @return boolean
+   */
+  @MBeanInfo("Indent XML written by this connector - for debugging.")
+  boolean getFormattedOutput();
 }
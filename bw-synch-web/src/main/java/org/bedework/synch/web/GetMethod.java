@@ -0,0 +1,62 @@
+/* ********************************************************************
+    Licensed to Jasig under one or more contributor license
+    agreements. See the NOTICE file distributed with this work
+    for additional information regarding copyright ownership.
+    Jasig licenses this file to you under the Apache License,
+    Version 2.0 (the "License"); you may not use this file
+    except in compliance with the License. You may obtain a
+    copy of the License at:
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on
+    an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied. See the License for the
+    specific language governing permissions and limitations
+    under the License.
+*/
+package org.bedework.synch.web;
+
+import org.bedework.synch.shared.exception.SynchException;
+
+import java.io.Writer;
+import java.util.List;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/** Handle GET for the synch servlet. The only resource is the engine
+ * metrics, as plain text, at "metrics".
+ */
+public class GetMethod extends MethodBase {
+  @Override
+  public void init() {
+  }
+
+  @Override
+  public void doMethod(final HttpServletRequest req,
+                       final HttpServletResponse resp) {
+    try {
+      final List<String> resourceUri = getResourceUri(req);
+
+      if ((resourceUri == null) || (resourceUri.size() != 1) ||
+              !"metrics".equals(resourceUri.get(0))) {
+        resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
+        return;
+      }
+
+      resp.setStatus(HttpServletResponse.SC_OK);
+      resp.setContentType("text/plain; charset=UTF-8");
+      resp.setHeader("Cache-Control", "no-cache");
+
+      final Writer wtr = resp.getWriter();
+      wtr.write(syncher.getMetrics().toText());
+      wtr.flush();
+    } catch (final SynchException se) {
+      throw se;
+    } catch(final Throwable t) {
+      throw new SynchException(t);
+    }
+  }
+}
@@ -22,15 +22,31 @@ import org.bedework.synch.shared.cnctrs.Connector;
 import org.bedework.synch.shared.cnctrs.Connector.NotificationBatch;
 import org.bedework.synch.shared.exception.SynchException;
 import org.bedework.util.misc.Util;
+import org.bedework.util.servlet.io.CharArrayWrappedResponse;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
 /** Handle POST for exchange synch servlet.
+ *
+ * <p>Where the container allows it the notifications are queued to the
+ * engine and the request is completed asynchronously once they have
+ * been processed, freeing the container thread in the meantime.
  */
 public class PostMethod extends MethodBase {
+  /* Connector calls have their own timeouts - this stops a request
+     that never completes holding its permit for ever.
+   */
+  private static final long asyncTimeoutMillis = 5 * 60 * 1000;
+
   @Override
   public void init() {
   }
@@ -57,15 +73,114 @@ public class PostMethod extends MethodBase {
       resourceUri.remove(0);
       final NotificationBatch notes = conn.handleCallback(req, resp, resourceUri);
 
-      if (notes != null) {
+      if (notes == null) {
+        return;
+      }
+
+      if (!req.isAsyncSupported() ||
+              (resp instanceof CharArrayWrappedResponse)) {
+        /* Dumped responses are written out as the servlet returns so
+           they have to be handled inline.
+         */
         syncher.handleNotifications(notes);
         conn.respondCallback(resp, notes);
+        return;
       }
+
+      /* Queue before going async - if the engine is too busy we
+         can still fail the request normally.
+       */
+      final CompletableFuture<Void> done =
+              syncher.queueNotifications(notes);
+
+      final AsyncContext actx = req.startAsync(req, resp);
+      SynchServlet.releaseOnCompletion(actx);
+
+      actx.setTimeout(asyncTimeoutMillis);
+
+      /* Whichever of completion and timeout comes first responds */
+      final AtomicBoolean responded = new AtomicBoolean();
+
+      actx.addListener(new AsyncListener() {
+        @Override
+        public void onComplete(final AsyncEvent event) {
+        }
+
+        @Override
+        public void onTimeout(final AsyncEvent event) {
+          if (responded.compareAndSet(false, true)) {
+            timedOut(actx);
+          }
+        }
+
+        @Override
+        public void onError(final AsyncEvent event) {
+          responded.set(true);
+        }
+
+        @Override
+        public void onStartAsync(final AsyncEvent event) {
+        }
+      });
+
+      done.whenComplete((v, t) -> {
+        if (responded.compareAndSet(false, true)) {
+          respond(actx, conn, notes, t);
+        }
+      });
     } catch (final SynchException se) {
       throw se;
     } catch(final Throwable t) {
       throw new SynchException(t);
     }
   }
-}
 
+  private void timedOut(final AsyncContext actx) {
+    warn("Timed out processing callback notifications");
+
+    try {
+      ((HttpServletResponse)actx.getResponse())
+              .sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+                         "Timed out processing notifications");
+    } catch (final Throwable t) {
+      error(t);
+    } finally {
+      actx.complete();
+    }
+  }
+
+  @SuppressWarnings({"unchecked"})
+  private void respond(final AsyncContext actx,
+                       final Connector conn,
+                       final NotificationBatch notes,
+                       final Throwable t) {
+    final HttpServletResponse resp =
+            (HttpServletResponse)actx.getResponse();
+
+    try {
+      if (t == null) {
+        conn.respondCallback(resp, notes);
+        return;
+      }
+
+      Throwable cause = t;
+      if ((cause instanceof CompletionException) &&
+              (cause.getCause() != null)) {
+        cause = cause.getCause();
+      }
+
+      error(cause);
+
+      if (cause instanceof final SynchException se) {
+        resp.sendError(se.getStatusCode(), se.getMessage());
+      } else {
+        resp.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
+                       cause.getMessage());
+      }
+    } catch (final Throwable t1) {
+      error(t1);
+    } finally {
+      actx.complete();
+    }
+  }
+}
@@ -0,0 +1,87 @@
+/* ********************************************************************
+    Licensed to Jasig under one or more contributor license
+    agreements. See the NOTICE file distributed with this work
+    for additional information regarding copyright ownership.
+    Jasig licenses this file to you under the Apache License,
+    Version 2.0 (the "License"); you may not use this file
+    except in compliance with the License. You may obtain a
+    copy of the License at:
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on
+    an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied. See the License for the
+    specific language governing permissions and limitations
+    under the License.
+*/
+package org.bedework.synch.web;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/** Limit the number of requests being processed concurrently for
+ * any one principal.
+ *
+ * <p>Principals are hashed onto a fixed table of fair semaphores so
+ * the table never grows and there is nothing to expire. Principals
+ * which share a stripe share its permits - with enough stripes that
+ * is rare.
+ *
+ * @author douglm
+ */
+public class PrincipalLimiter {
+  private final Semaphore[] stripes;
+
+  private final long waitMillis;
+
+  /**
+   * @param numStripes number of stripes in the table
+   * @param perPrincipal requests a principal may have active at once
+   * @param waitMillis how long a request may wait for a permit
+   */
+  public PrincipalLimiter(final int numStripes,
+                          final int perPrincipal,
+                          final long waitMillis) {
+    stripes = new Semaphore[Math.max(1, numStripes)];
+
+    for (int i = 0; i < stripes.length; i++) {
+      stripes[i] = new Semaphore(Math.max(1, perPrincipal), true);
+    }
+
+    this.waitMillis = waitMillis;
+  }
+
+  /** Wait - in arrival order - for a permit.
+   *
+   * @param principal requesting
+   * @return false if no permit became available in time
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public boolean acquire(final String principal)
+          throws InterruptedException {
+    return stripeFor(principal).tryAcquire(waitMillis,
+                                           TimeUnit.MILLISECONDS);
+  }
+
+  /** Return a permit obtained by acquire.
+   *
+   * @param principal requesting
+   */
+  public void release(final String principal) {
+    stripeFor(principal).release();
+  }
+
+  /**
+   * @param principal requesting
+   * @return number of requests waiting on that principal's stripe
+   */
+  public int getQueueLength(final String principal) {
+    return stripeFor(principal).getQueueLength();
+  }
+
+  private Semaphore stripeFor(final String principal) {
+    return stripes[(principal.hashCode() & 0x7fffffff) % stripes.length];
+  }
+}
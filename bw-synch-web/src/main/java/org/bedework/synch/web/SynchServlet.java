@@ -35,8 +35,12 @@ import java.io.IOException;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.management.ObjectName;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
 import jakarta.servlet.ServletConfig;
 import jakarta.servlet.ServletContextEvent;
 import jakarta.servlet.ServletContextListener;
@@ -60,25 +64,64 @@ public class SynchServlet extends HttpServlet
         implements Logged, HttpSessionListener, ServletContextListener {
   protected boolean dumpContent;
 
+  /* GET of the metrics path is only served when this is set */
+  protected boolean exposeMetrics;
+
   /** Table of methods - set at init
    */
   protected HashMap<String, MethodInfo> methods = new HashMap<>();
 
-  /* Try to serialize requests from a single session
-   * This is very imperfect.
+  /* Limit the number of concurrent requests from a single principal.
    */
-  static class Waiter {
-    boolean active;
-    int waiting;
-  }
+  private PrincipalLimiter limiter;
+
+  private static final int defaultMaxPerPrincipal = 4;
+
+  private static final int defaultLimiterStripes = 64;
+
+  private static final int defaultLimiterWaitSeconds = 60;
+
+  /* Set on the request when it holds a permit */
+  private static final String permitAttr =
+          "org.bedework.synch.web.permit";
+
+  /* A permit held by a request. Async processing may end on another
+   * thread and in more than one way so release is idempotent.
+   */
+  private static class Permit {
+    private final PrincipalLimiter limiter;
 
-  private static final HashMap<String, Waiter> waiters = new HashMap<>();
+    private final String principal;
+
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    Permit(final PrincipalLimiter limiter,
+           final String principal) {
+      this.limiter = limiter;
+      this.principal = principal;
+    }
+
+    void release() {
+      if (released.compareAndSet(false, true)) {
+        limiter.release(principal);
+      }
+    }
+  }
 
   @Override
   public void init(final ServletConfig config) throws ServletException {
     super.init(config);
 
     dumpContent = "true".equals(config.getInitParameter("dumpContent"));
+    exposeMetrics = "true".equals(config.getInitParameter("exposeMetrics"));
+
+    limiter = new PrincipalLimiter(
+            getIntParam(config, "limiterStripes",
+                        defaultLimiterStripes),
+            getIntParam(config, "maxPerPrincipal",
+                        defaultMaxPerPrincipal),
+            getIntParam(config, "limiterWaitSeconds",
+                        defaultLimiterWaitSeconds) * 1000L);
 
     addMethods();
   }
@@ -96,7 +139,7 @@ public class SynchServlet extends HttpServlet
         dumpRequest(req);
       }
 
-      tryWait(req, true);
+      acquirePermit(req);
 
       syncher = SynchEngineImpl.getSyncher();
 
@@ -121,6 +164,7 @@ public class SynchServlet extends HttpServlet
 
       if (method == null) {
         info("No method for '" + methodName + "'");
+        resp.setStatus(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
 
         // ==========================================================
         //     Set the correct response
@@ -142,9 +186,12 @@ public class SynchServlet extends HttpServlet
         }
       }
 
-      try {
-        tryWait(req, false);
-      } catch (final Throwable ignored) {}
+      if (!req.isAsyncStarted()) {
+        /* Async requests release through the listener added by
+           releaseOnCompletion when they started.
+         */
+        releasePermit(req);
+      }
 
       if (debug() && dumpContent &&
           (resp instanceof final CharArrayWrappedResponse wresp)) {
@@ -278,6 +325,9 @@ public class SynchServlet extends HttpServlet
    */
   protected void addMethods() {
     methods.put("POST", new MethodInfo(PostMethod.class, true));
+    if (exposeMetrics) {
+      methods.put("GET", new MethodInfo(GetMethod.class, true));
+    }
     /*
     methods.put("ACL", new MethodInfo(AclMethod.class, false));
     methods.put("COPY", new MethodInfo(CopyMethod.class, false));
@@ -307,6 +357,10 @@ public class SynchServlet extends HttpServlet
                               final String name) {
     final MethodInfo mi = methods.get(name.toUpperCase());
 
+    if (mi == null) {
+      return null;
+    }
+
 //    if ((mi == null) || (getAnonymous() && mi.getRequiresAuth())) {
   //    return null;
     //}
@@ -325,46 +379,90 @@ public class SynchServlet extends HttpServlet
     }
   }
 
-  private void tryWait(final HttpServletRequest req, final boolean in) throws Throwable {
-    Waiter wtr;
-    synchronized (waiters) {
-      //String key = req.getRequestedSessionId();
-      final String key = req.getRemoteUser();
-      if (key == null) {
-        return;
-      }
+  private int getIntParam(final ServletConfig config,
+                          final String name,
+                          final int def) {
+    final String val = config.getInitParameter(name);
 
-      wtr = waiters.get(key);
-      if (wtr == null) {
-        if (!in) {
-          return;
-        }
+    if (val == null) {
+      return def;
+    }
 
-        wtr = new Waiter();
-        wtr.active = true;
-        waiters.put(key, wtr);
-        return;
-      }
+    try {
+      return Integer.parseInt(val.trim());
+    } catch (final NumberFormatException nfe) {
+      warn("Bad value for init parameter " + name + ": " + val);
+      return def;
     }
+  }
 
-    synchronized (wtr) {
-      if (!in) {
-        wtr.active = false;
-        wtr.notify();
-        return;
+  /* Wait for a permit for the authenticated principal. Anonymous
+   * requests are not limited.
+   */
+  private void acquirePermit(final HttpServletRequest req)
+          throws InterruptedException {
+    final String principal = req.getRemoteUser();
+    if (principal == null) {
+      return;
+    }
+
+    if (debug()) {
+      debug("in: waiters=" + limiter.getQueueLength(principal));
+    }
+
+    if (!limiter.acquire(principal)) {
+      throw new SynchException(HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+                               "Too many concurrent requests for " +
+                                       principal);
+    }
+
+    req.setAttribute(permitAttr, new Permit(limiter, principal));
+  }
+
+  /* Release the permit if this request holds one. Safe to call more
+   * than once.
+   */
+  private void releasePermit(final HttpServletRequest req) {
+    final Permit permit = (Permit)req.getAttribute(permitAttr);
+    if (permit != null) {
+      permit.release();
+    }
+  }
+
+  /** Release the request's permit, if it holds one, when its async
+   * processing completes, fails or times out. Called by a method
+   * straight after starting async processing so that the listener is
+   * in place before anything can complete the request.
+   *
+   * @param actx the async context just started
+   */
+  static void releaseOnCompletion(final AsyncContext actx) {
+    final Permit permit =
+            (Permit)actx.getRequest().getAttribute(permitAttr);
+    if (permit == null) {
+      return;
+    }
+
+    actx.addListener(new AsyncListener() {
+      @Override
+      public void onComplete(final AsyncEvent event) {
+        permit.release();
       }
 
-      wtr.waiting++;
-      while (wtr.active) {
-        if (debug()) {
-          debug("in: waiters=" + wtr.waiting);
-        }
+      @Override
+      public void onTimeout(final AsyncEvent event) {
+        permit.release();
+      }
 
-        wtr.wait();
+      @Override
+      public void onError(final AsyncEvent event) {
+        permit.release();
       }
-      wtr.waiting--;
-      wtr.active = true;
-    }
+
+      @Override
+      public void onStartAsync(final AsyncEvent event) {
+      }
+    });
   }
 
   /* (non-Javadoc)
@@ -379,15 +477,6 @@ public class SynchServlet extends HttpServlet
    */
   @Override
   public void sessionDestroyed(final HttpSessionEvent se) {
-    final HttpSession session = se.getSession();
-    final String sessid = session.getId();
-    if (sessid == null) {
-      return;
-    }
-
-    synchronized (waiters) {
-      waiters.remove(sessid);
-    }
   }
 
   /** Debug